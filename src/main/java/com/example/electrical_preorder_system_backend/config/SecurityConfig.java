@@ -41,6 +41,7 @@ public class SecurityConfig {
             Map.entry("/users/*", HttpMethod.DELETE),
             Map.entry("/users/*/device-token", HttpMethod.POST),
             Map.entry("/products", HttpMethod.POST),
+            Map.entry("/products/import", HttpMethod.POST),
             Map.entry("/products/*", HttpMethod.PUT),
             Map.entry("/products/*", HttpMethod.DELETE),
             Map.entry("/categories", HttpMethod.POST),
@@ -50,6 +51,7 @@ public class SecurityConfig {
             Map.entry("/campaigns/*", HttpMethod.PUT),
             Map.entry("/campaigns/*", HttpMethod.PATCH),
             Map.entry("/campaigns/*", HttpMethod.DELETE),
+            Map.entry("/campaigns/*/metrics", HttpMethod.GET),
             Map.entry("/notifications/*", HttpMethod.GET),
             Map.entry("/notifications/*", HttpMethod.PATCH),
             Map.entry("/payments", HttpMethod.POST),
@@ -57,7 +59,8 @@ public class SecurityConfig {
             Map.entry("/orders", HttpMethod.POST),
             Map.entry("/orders/*", HttpMethod.GET),
             Map.entry("/orders/*", HttpMethod.PATCH),
-            Map.entry("/orders/*", HttpMethod.DELETE)
+            Map.entry("/orders/*", HttpMethod.DELETE),
+            Map.entry("/cache/*", HttpMethod.GET)
     );
     private final UserDetailsService userDetailsService;
     private final AuthEntryPointJwt unauthorizedHandler;
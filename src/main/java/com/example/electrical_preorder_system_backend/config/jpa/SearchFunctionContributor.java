@@ -0,0 +1,28 @@
+package com.example.electrical_preorder_system_backend.config.jpa;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * PostgreSQL full-text functions usable from criteria queries. The tsvector expression must stay identical
+ * to the one of idx_product_search_tsv, see ProductSearchIndexInitializer, or the index is not used.
+ * Registered through META-INF/services.
+ */
+public class SearchFunctionContributor implements FunctionContributor {
+
+    public static final String TEXT_MATCH = "text_search_match";
+    public static final String TEXT_RANK = "text_search_rank";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicTypeRegistry types = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+        functionContributions.getFunctionRegistry().registerPattern(TEXT_MATCH,
+                "(to_tsvector('simple', coalesce(?1, '')) @@ plainto_tsquery('simple', ?2))",
+                types.resolve(StandardBasicTypes.BOOLEAN));
+        functionContributions.getFunctionRegistry().registerPattern(TEXT_RANK,
+                "ts_rank(to_tsvector('simple', coalesce(?1, '')), plainto_tsquery('simple', ?2))",
+                types.resolve(StandardBasicTypes.DOUBLE));
+    }
+}
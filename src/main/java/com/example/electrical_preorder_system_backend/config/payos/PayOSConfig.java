@@ -1,6 +1,7 @@
 package com.example.electrical_preorder_system_backend.config.payos;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import vn.payos.PayOS;
@@ -8,17 +9,12 @@ import vn.payos.PayOS;
 @Configuration
 public class PayOSConfig {
 
-    @Value("${payos.clientId}")
-    private String clientId;
-
-    @Value("${payos.apiKey}")
-    private String apiKey;
-
-    @Value("${payos.checksumKey}")
-    private String checksumKey;
-
+    // Credentials are only resolved when the real gateway is used, the stub gateway runs without them
     @Bean
-    public PayOS payOS() {
+    @ConditionalOnProperty(name = "payos.gateway.mode", havingValue = "payos", matchIfMissing = true)
+    public PayOS payOS(@Value("${payos.clientId}") String clientId,
+                       @Value("${payos.apiKey}") String apiKey,
+                       @Value("${payos.checksumKey}") String checksumKey) {
         if (clientId == null || apiKey == null || checksumKey == null) {
             throw new IllegalStateException("One or more required environment variables are not set.");
         }
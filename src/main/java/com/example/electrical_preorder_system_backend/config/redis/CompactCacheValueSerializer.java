@@ -0,0 +1,541 @@
+package com.example.electrical_preorder_system_backend.config.redis;
+
+import com.example.electrical_preorder_system_backend.dto.cache.CachedCampaignPage;
+import com.example.electrical_preorder_system_backend.dto.cache.CachedProductPage;
+import com.example.electrical_preorder_system_backend.dto.response.campaign.CampaignDTO;
+import com.example.electrical_preorder_system_backend.dto.response.campaign.SimplifiedCampaignDTO;
+import com.example.electrical_preorder_system_backend.dto.response.campaign_stage.CampaignStageDTO;
+import com.example.electrical_preorder_system_backend.dto.response.category.CategoryDTO;
+import com.example.electrical_preorder_system_backend.dto.response.product.ProductDTO;
+import com.example.electrical_preorder_system_backend.dto.response.product.ProductDetailDTO;
+import com.example.electrical_preorder_system_backend.dto.response.product_images.ImageProductDTO;
+import com.example.electrical_preorder_system_backend.enums.CampaignStageStatus;
+import com.example.electrical_preorder_system_backend.enums.CampaignStatus;
+import com.example.electrical_preorder_system_backend.enums.ProductStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Cache value codec with a fixed binary layout for the catalog values that dominate the cache:
+ * product and campaign pages, product details, campaigns and categories. Fields are written in
+ * declaration order without names or type hints, and payloads above the threshold are deflated.
+ * Any other value, and any entry that does not start with the magic byte, goes through the JSON
+ * serializer, so entries written before switching codecs are still readable.
+ */
+@Slf4j
+public class CompactCacheValueSerializer implements RedisSerializer<Object> {
+
+    private static final byte MAGIC = (byte) 0xCB;
+    // Enums are written by ordinal, bump the version when a layout or an enum order changes
+    private static final byte FORMAT_VERSION = 1;
+    private static final byte FLAG_COMPRESSED = 1;
+
+    private static final byte TYPE_PRODUCT_PAGE = 1;
+    private static final byte TYPE_CAMPAIGN_PAGE = 2;
+    private static final byte TYPE_PRODUCT_DETAIL = 3;
+    private static final byte TYPE_CATEGORY_LIST = 4;
+    private static final byte TYPE_CATEGORY = 5;
+    private static final byte TYPE_CAMPAIGN = 6;
+
+    private static final int HEADER_SIZE = 4;
+
+    private final RedisSerializer<Object> fallback;
+    private final int compressionThreshold;
+
+    public CompactCacheValueSerializer(RedisSerializer<Object> fallback, int compressionThreshold) {
+        this.fallback = fallback;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        byte type = typeOf(value);
+        if (type == 0) {
+            return fallback.serialize(value);
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+            Writer out = new Writer(new DataOutputStream(bytes));
+            writeValue(out, type, value);
+            byte[] payload = bytes.toByteArray();
+
+            boolean compress = payload.length >= compressionThreshold;
+            byte[] body = compress ? deflate(payload) : payload;
+            byte[] result = new byte[HEADER_SIZE + body.length];
+            result[0] = MAGIC;
+            result[1] = FORMAT_VERSION;
+            result[2] = compress ? FLAG_COMPRESSED : 0;
+            result[3] = type;
+            System.arraycopy(body, 0, result, HEADER_SIZE, body.length);
+            return result;
+        } catch (IOException e) {
+            throw new SerializationException("Could not write cache value", e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return fallback.deserialize(bytes);
+        }
+        if (bytes.length < HEADER_SIZE || bytes[1] != FORMAT_VERSION) {
+            // Written by another layout version, treat it as a cache miss
+            log.debug("Skipping cache value with unsupported format version");
+            return null;
+        }
+        try {
+            byte[] payload = new byte[bytes.length - HEADER_SIZE];
+            System.arraycopy(bytes, HEADER_SIZE, payload, 0, payload.length);
+            if ((bytes[2] & FLAG_COMPRESSED) != 0) {
+                payload = inflate(payload);
+            }
+            Reader in = new Reader(new DataInputStream(new ByteArrayInputStream(payload)));
+            return readValue(in, bytes[3]);
+        } catch (IOException | DataFormatException e) {
+            throw new SerializationException("Could not read cache value", e);
+        }
+    }
+
+    private static byte typeOf(Object value) {
+        if (value instanceof CachedProductPage) {
+            return TYPE_PRODUCT_PAGE;
+        }
+        if (value instanceof CachedCampaignPage) {
+            return TYPE_CAMPAIGN_PAGE;
+        }
+        if (value instanceof ProductDetailDTO) {
+            return TYPE_PRODUCT_DETAIL;
+        }
+        if (value instanceof CategoryDTO) {
+            return TYPE_CATEGORY;
+        }
+        if (value instanceof CampaignDTO) {
+            return TYPE_CAMPAIGN;
+        }
+        if (value instanceof List<?> list && list.stream().allMatch(CategoryDTO.class::isInstance)) {
+            return TYPE_CATEGORY_LIST;
+        }
+        return 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writeValue(Writer out, byte type, Object value) throws IOException {
+        switch (type) {
+            case TYPE_PRODUCT_PAGE -> {
+                CachedProductPage page = (CachedProductPage) value;
+                writePageHeader(out, page.getNumber(), page.getSize(), page.getTotalElements(), page.getTotalPages());
+                out.writeList(page.getContent(), CompactCacheValueSerializer::writeProduct);
+            }
+            case TYPE_CAMPAIGN_PAGE -> {
+                CachedCampaignPage page = (CachedCampaignPage) value;
+                writePageHeader(out, page.getNumber(), page.getSize(), page.getTotalElements(), page.getTotalPages());
+                out.writeList(page.getContent(), CompactCacheValueSerializer::writeCampaign);
+            }
+            case TYPE_PRODUCT_DETAIL -> {
+                ProductDetailDTO detail = (ProductDetailDTO) value;
+                out.writeObject(detail.getProduct(), CompactCacheValueSerializer::writeProduct);
+                out.writeList(detail.getCampaigns(), CompactCacheValueSerializer::writeSimplifiedCampaign);
+            }
+            case TYPE_CATEGORY_LIST -> out.writeList((List<CategoryDTO>) value, CompactCacheValueSerializer::writeCategory);
+            case TYPE_CATEGORY -> writeCategory(out, (CategoryDTO) value);
+            case TYPE_CAMPAIGN -> writeCampaign(out, (CampaignDTO) value);
+            default -> throw new IllegalStateException("Unknown cache value type " + type);
+        }
+    }
+
+    private static Object readValue(Reader in, byte type) throws IOException {
+        return switch (type) {
+            case TYPE_PRODUCT_PAGE -> {
+                CachedProductPage page = new CachedProductPage();
+                page.setNumber(in.readInt());
+                page.setSize(in.readInt());
+                page.setTotalElements(in.readLong());
+                page.setTotalPages(in.readInt());
+                page.setContent(in.readList(CompactCacheValueSerializer::readProduct));
+                yield page;
+            }
+            case TYPE_CAMPAIGN_PAGE -> {
+                CachedCampaignPage page = new CachedCampaignPage();
+                page.setNumber(in.readInt());
+                page.setSize(in.readInt());
+                page.setTotalElements(in.readLong());
+                page.setTotalPages(in.readInt());
+                page.setContent(in.readList(CompactCacheValueSerializer::readCampaign));
+                yield page;
+            }
+            case TYPE_PRODUCT_DETAIL -> {
+                ProductDetailDTO detail = new ProductDetailDTO();
+                detail.setProduct(in.readObject(CompactCacheValueSerializer::readProduct));
+                detail.setCampaigns(in.readList(CompactCacheValueSerializer::readSimplifiedCampaign));
+                yield detail;
+            }
+            case TYPE_CATEGORY_LIST -> in.readList(CompactCacheValueSerializer::readCategory);
+            case TYPE_CATEGORY -> readCategory(in);
+            case TYPE_CAMPAIGN -> readCampaign(in);
+            default -> throw new SerializationException("Unknown cache value type " + type);
+        };
+    }
+
+    private static void writePageHeader(Writer out, int number, int size, long totalElements, int totalPages)
+            throws IOException {
+        out.writeInt(number);
+        out.writeInt(size);
+        out.writeLong(totalElements);
+        out.writeInt(totalPages);
+    }
+
+    private static void writeProduct(Writer out, ProductDTO product) throws IOException {
+        out.writeUuid(product.getId());
+        out.writeString(product.getProductCode());
+        out.writeString(product.getName());
+        out.writeString(product.getSlug());
+        out.writeInteger(product.getQuantity());
+        out.writeString(product.getDescription());
+        out.writeDecimal(product.getPrice());
+        out.writeInteger(product.getSortKey());
+        out.writeEnum(product.getStatus());
+        out.writeBoolean(product.isDeleted());
+        out.writeObject(product.getCategory(), CompactCacheValueSerializer::writeCategory);
+        out.writeList(product.getImageProducts(), CompactCacheValueSerializer::writeImage);
+        out.writeDateTime(product.getCreatedAt());
+        out.writeDateTime(product.getUpdatedAt());
+    }
+
+    private static ProductDTO readProduct(Reader in) throws IOException {
+        ProductDTO product = new ProductDTO();
+        product.setId(in.readUuid());
+        product.setProductCode(in.readString());
+        product.setName(in.readString());
+        product.setSlug(in.readString());
+        product.setQuantity(in.readInteger());
+        product.setDescription(in.readString());
+        product.setPrice(in.readDecimal());
+        product.setSortKey(in.readInteger());
+        product.setStatus(in.readEnum(ProductStatus.values()));
+        product.setDeleted(in.readBoolean());
+        product.setCategory(in.readObject(CompactCacheValueSerializer::readCategory));
+        List<ImageProductDTO> images = in.readList(CompactCacheValueSerializer::readImage);
+        product.setImageProducts(images != null ? images : new ArrayList<>());
+        product.setCreatedAt(in.readDateTime());
+        product.setUpdatedAt(in.readDateTime());
+        return product;
+    }
+
+    private static void writeCategory(Writer out, CategoryDTO category) throws IOException {
+        out.writeUuid(category.getId());
+        out.writeString(category.getName());
+    }
+
+    private static CategoryDTO readCategory(Reader in) throws IOException {
+        CategoryDTO category = new CategoryDTO();
+        category.setId(in.readUuid());
+        category.setName(in.readString());
+        return category;
+    }
+
+    private static void writeImage(Writer out, ImageProductDTO image) throws IOException {
+        out.writeString(image.getAltText());
+        out.writeString(image.getImageUrl());
+    }
+
+    private static ImageProductDTO readImage(Reader in) throws IOException {
+        ImageProductDTO image = new ImageProductDTO();
+        image.setAltText(in.readString());
+        image.setImageUrl(in.readString());
+        return image;
+    }
+
+    private static void writeCampaign(Writer out, CampaignDTO campaign) throws IOException {
+        out.writeUuid(campaign.getId());
+        out.writeString(campaign.getName());
+        out.writeDateTime(campaign.getStartDate());
+        out.writeDateTime(campaign.getEndDate());
+        out.writeInteger(campaign.getMinQuantity());
+        out.writeInteger(campaign.getMaxQuantity());
+        out.writeDecimal(campaign.getTotalAmount());
+        out.writeEnum(campaign.getStatus());
+        out.writeObject(campaign.getProduct(), CompactCacheValueSerializer::writeProduct);
+        out.writeDateTime(campaign.getCreatedAt());
+        out.writeDateTime(campaign.getUpdatedAt());
+    }
+
+    private static CampaignDTO readCampaign(Reader in) throws IOException {
+        CampaignDTO campaign = new CampaignDTO();
+        campaign.setId(in.readUuid());
+        campaign.setName(in.readString());
+        campaign.setStartDate(in.readDateTime());
+        campaign.setEndDate(in.readDateTime());
+        campaign.setMinQuantity(in.readInteger());
+        campaign.setMaxQuantity(in.readInteger());
+        campaign.setTotalAmount(in.readDecimal());
+        campaign.setStatus(in.readEnum(CampaignStatus.values()));
+        campaign.setProduct(in.readObject(CompactCacheValueSerializer::readProduct));
+        campaign.setCreatedAt(in.readDateTime());
+        campaign.setUpdatedAt(in.readDateTime());
+        return campaign;
+    }
+
+    private static void writeSimplifiedCampaign(Writer out, SimplifiedCampaignDTO campaign) throws IOException {
+        out.writeUuid(campaign.getId());
+        out.writeString(campaign.getName());
+        out.writeDateTime(campaign.getStartDate());
+        out.writeDateTime(campaign.getEndDate());
+        out.writeInteger(campaign.getMinQuantity());
+        out.writeInteger(campaign.getMaxQuantity());
+        out.writeDecimal(campaign.getTotalAmount());
+        out.writeString(campaign.getStatus());
+        out.writeList(campaign.getStages(), CompactCacheValueSerializer::writeStage);
+    }
+
+    private static SimplifiedCampaignDTO readSimplifiedCampaign(Reader in) throws IOException {
+        SimplifiedCampaignDTO campaign = new SimplifiedCampaignDTO();
+        campaign.setId(in.readUuid());
+        campaign.setName(in.readString());
+        campaign.setStartDate(in.readDateTime());
+        campaign.setEndDate(in.readDateTime());
+        campaign.setMinQuantity(in.readInteger());
+        campaign.setMaxQuantity(in.readInteger());
+        campaign.setTotalAmount(in.readDecimal());
+        campaign.setStatus(in.readString());
+        campaign.setStages(in.readList(CompactCacheValueSerializer::readStage));
+        return campaign;
+    }
+
+    private static void writeStage(Writer out, CampaignStageDTO stage) throws IOException {
+        out.writeUuid(stage.getId());
+        out.writeString(stage.getName());
+        out.writeDateTime(stage.getStartDate());
+        out.writeDateTime(stage.getEndDate());
+        out.writeInteger(stage.getQuantitySold());
+        out.writeInteger(stage.getTargetQuantity());
+        out.writeEnum(stage.getStatus());
+        out.writeDateTime(stage.getCreatedAt());
+        out.writeDateTime(stage.getUpdatedAt());
+    }
+
+    private static CampaignStageDTO readStage(Reader in) throws IOException {
+        CampaignStageDTO stage = new CampaignStageDTO();
+        stage.setId(in.readUuid());
+        stage.setName(in.readString());
+        stage.setStartDate(in.readDateTime());
+        stage.setEndDate(in.readDateTime());
+        stage.setQuantitySold(in.readInteger());
+        stage.setTargetQuantity(in.readInteger());
+        stage.setStatus(in.readEnum(CampaignStageStatus.values()));
+        stage.setCreatedAt(in.readDateTime());
+        stage.setUpdatedAt(in.readDateTime());
+        return stage;
+    }
+
+    private static byte[] deflate(byte[] payload) throws IOException {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(payload);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length / 2 + 16);
+            DataOutputStream header = new DataOutputStream(out);
+            header.writeInt(payload.length);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] body) throws IOException, DataFormatException {
+        int length = new DataInputStream(new ByteArrayInputStream(body, 0, 4)).readInt();
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(body, 4, body.length - 4);
+            byte[] payload = new byte[length];
+            int offset = 0;
+            while (offset < length && !inflater.finished()) {
+                offset += inflater.inflate(payload, offset, length - offset);
+            }
+            return payload;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    @FunctionalInterface
+    private interface FieldWriter<T> {
+        void write(Writer out, T value) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface FieldReader<T> {
+        T read(Reader in) throws IOException;
+    }
+
+    /** Null-aware primitives; every nullable field starts with a presence byte */
+    private record Writer(DataOutputStream out) {
+
+        void writeInt(int value) throws IOException {
+            out.writeInt(value);
+        }
+
+        void writeLong(long value) throws IOException {
+            out.writeLong(value);
+        }
+
+        void writeBoolean(boolean value) throws IOException {
+            out.writeBoolean(value);
+        }
+
+        boolean writePresence(Object value) throws IOException {
+            out.writeBoolean(value != null);
+            return value != null;
+        }
+
+        void writeInteger(Integer value) throws IOException {
+            if (writePresence(value)) {
+                out.writeInt(value);
+            }
+        }
+
+        void writeString(String value) throws IOException {
+            if (writePresence(value)) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+
+        void writeUuid(UUID value) throws IOException {
+            if (writePresence(value)) {
+                out.writeLong(value.getMostSignificantBits());
+                out.writeLong(value.getLeastSignificantBits());
+            }
+        }
+
+        void writeDecimal(BigDecimal value) throws IOException {
+            if (writePresence(value)) {
+                byte[] unscaled = value.unscaledValue().toByteArray();
+                out.writeByte(unscaled.length);
+                out.write(unscaled);
+                out.writeInt(value.scale());
+            }
+        }
+
+        void writeDateTime(LocalDateTime value) throws IOException {
+            if (writePresence(value)) {
+                out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(value.getNano());
+            }
+        }
+
+        void writeEnum(Enum<?> value) throws IOException {
+            if (writePresence(value)) {
+                out.writeByte(value.ordinal());
+            }
+        }
+
+        <T> void writeObject(T value, FieldWriter<T> writer) throws IOException {
+            if (writePresence(value)) {
+                writer.write(this, value);
+            }
+        }
+
+        <T> void writeList(List<T> values, FieldWriter<T> writer) throws IOException {
+            if (writePresence(values)) {
+                out.writeInt(values.size());
+                for (T value : values) {
+                    writeObject(value, writer);
+                }
+            }
+        }
+    }
+
+    private record Reader(DataInputStream in) {
+
+        int readInt() throws IOException {
+            return in.readInt();
+        }
+
+        long readLong() throws IOException {
+            return in.readLong();
+        }
+
+        boolean readBoolean() throws IOException {
+            return in.readBoolean();
+        }
+
+        Integer readInteger() throws IOException {
+            return in.readBoolean() ? in.readInt() : null;
+        }
+
+        String readString() throws IOException {
+            if (!in.readBoolean()) {
+                return null;
+            }
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        UUID readUuid() throws IOException {
+            return in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+        }
+
+        BigDecimal readDecimal() throws IOException {
+            if (!in.readBoolean()) {
+                return null;
+            }
+            byte[] unscaled = new byte[in.readUnsignedByte()];
+            in.readFully(unscaled);
+            return new BigDecimal(new BigInteger(unscaled), in.readInt());
+        }
+
+        LocalDateTime readDateTime() throws IOException {
+            return in.readBoolean()
+                    ? LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC)
+                    : null;
+        }
+
+        <E extends Enum<E>> E readEnum(E[] values) throws IOException {
+            return in.readBoolean() ? values[in.readUnsignedByte()] : null;
+        }
+
+        <T> T readObject(FieldReader<T> reader) throws IOException {
+            return in.readBoolean() ? reader.read(this) : null;
+        }
+
+        <T> List<T> readList(FieldReader<T> reader) throws IOException {
+            if (!in.readBoolean()) {
+                return null;
+            }
+            int size = in.readInt();
+            List<T> values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                values.add(readObject(reader));
+            }
+            return values;
+        }
+    }
+}
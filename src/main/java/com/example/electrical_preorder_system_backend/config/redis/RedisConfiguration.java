@@ -5,20 +5,29 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.example.electrical_preorder_system_backend.service.cache.NearCache;
+import com.example.electrical_preorder_system_backend.service.cache.TwoTierCacheManager;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.BatchStrategies;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
+import java.util.Set;
 
 @Configuration
 @EnableCaching
@@ -42,15 +51,28 @@ public class RedisConfiguration {
         return new GenericJackson2JsonRedisSerializer(redisObjectMapper);
     }
 
+    @Bean
+    public RedisSerializer<Object> cacheValueSerializer(
+            GenericJackson2JsonRedisSerializer redisSerializer,
+            @Value("${cache.codec:binary}") String codec,
+            @Value("${cache.codec.compression-threshold-bytes:2048}") int compressionThreshold) {
+
+        if ("binary".equalsIgnoreCase(codec)) {
+            return new CompactCacheValueSerializer(redisSerializer, compressionThreshold);
+        }
+        return redisSerializer;
+    }
+
     @Bean
     public RedisTemplate<String, Object> redisTemplate(
             RedisConnectionFactory factory,
-            GenericJackson2JsonRedisSerializer redisSerializer) {
+            GenericJackson2JsonRedisSerializer redisSerializer,
+            @Qualifier("cacheValueSerializer") RedisSerializer<Object> cacheValueSerializer) {
 
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(factory);
         template.setKeySerializer(new StringRedisSerializer());
-        template.setValueSerializer(redisSerializer);
+        template.setValueSerializer(cacheValueSerializer);
         template.setHashKeySerializer(new StringRedisSerializer());
         template.setHashValueSerializer(redisSerializer);
         template.afterPropertiesSet();
@@ -61,7 +83,9 @@ public class RedisConfiguration {
     @Bean
     public CacheManager cacheManager(
             RedisConnectionFactory factory,
-            GenericJackson2JsonRedisSerializer redisSerializer) {
+            @Qualifier("cacheValueSerializer") RedisSerializer<Object> cacheValueSerializer,
+            NearCache nearCache,
+            @Value("${cache.near.cache-names:products,campaigns}") Set<String> nearCacheNames) {
 
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofMinutes(60))
@@ -69,11 +93,27 @@ public class RedisConfiguration {
                 .serializeKeysWith(
                         RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
                 .serializeValuesWith(
-                        RedisSerializationContext.SerializationPair.fromSerializer(redisSerializer));
+                        RedisSerializationContext.SerializationPair.fromSerializer(cacheValueSerializer));
+
+        // Whole-cache clears walk the keyspace with SCAN instead of blocking Redis with KEYS
+        RedisCacheWriter cacheWriter = RedisCacheWriter.nonLockingRedisCacheWriter(factory, BatchStrategies.scan(1000));
 
-        return RedisCacheManager.builder(factory)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(cacheWriter)
                 .cacheDefaults(config)
                 .build();
+        redisCacheManager.afterPropertiesSet();
+        return new TwoTierCacheManager(redisCacheManager, nearCache, nearCacheNames);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+            RedisConnectionFactory factory,
+            NearCache nearCache) {
+
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        container.addMessageListener(nearCache, new ChannelTopic(NearCache.INVALIDATION_CHANNEL));
+        return container;
     }
 
 }
\ No newline at end of file
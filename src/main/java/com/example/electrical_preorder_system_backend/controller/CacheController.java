@@ -0,0 +1,35 @@
+package com.example.electrical_preorder_system_backend.controller;
+
+import com.example.electrical_preorder_system_backend.dto.response.ApiResponse;
+import com.example.electrical_preorder_system_backend.service.cache.QueryFingerprinter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("${api.prefix}/cache")
+@Tag(name = "Cache API", description = "APIs for cache diagnostics")
+public class CacheController {
+
+    private final QueryFingerprinter queryFingerprinter;
+
+    @Operation(
+            summary = "Get list cache hit/miss counts",
+            description = "Returns cache hits and misses of product and campaign list queries since startup, " +
+                    "grouped by query shape (filters used and sort). Requires admin role."
+    )
+    @SecurityRequirement(name = "Bearer Authentication")
+    @GetMapping("/query-stats")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<ApiResponse> getQueryStats() {
+        return ResponseEntity.ok(new ApiResponse("Cache query stats retrieved successfully",
+                queryFingerprinter.getShapeStats()));
+    }
+}
@@ -7,6 +7,7 @@ import com.example.electrical_preorder_system_backend.dto.request.campaign_stage
 import com.example.electrical_preorder_system_backend.dto.request.campaign_stage.UpdateCampaignStageRequest;
 import com.example.electrical_preorder_system_backend.dto.response.ApiResponse;
 import com.example.electrical_preorder_system_backend.dto.response.campaign.CampaignDTO;
+import com.example.electrical_preorder_system_backend.dto.response.campaign.CampaignMetricsDTO;
 import com.example.electrical_preorder_system_backend.dto.response.stage_history.StageHistoryDTO;
 import com.example.electrical_preorder_system_backend.entity.Campaign;
 import com.example.electrical_preorder_system_backend.entity.CampaignStage;
@@ -219,6 +220,20 @@ public class CampaignController {
         return ResponseEntity.ok(new ApiResponse("Campaign deleted successfully", stageId));
     }
 
+    @Operation(
+            summary = "Get campaign metrics",
+            description = "Returns the ordered, pending and paid totals of a campaign and of each of its stages. Requires admin role."
+    )
+    @SecurityRequirement(name = "Bearer Authentication")
+    @GetMapping("/{id}/metrics")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<ApiResponse> getCampaignMetrics(
+            @Parameter(description = "Campaign UUID", required = true) @PathVariable UUID id
+    ) {
+        CampaignMetricsDTO metrics = campaignService.getCampaignMetrics(id);
+        return ResponseEntity.ok(new ApiResponse("Campaign metrics retrieved successfully", metrics));
+    }
+
     @Operation(
             summary = "Get campaign stage history",
             description = "Returns the status transition history for all stages of a campaign"
@@ -52,11 +52,13 @@ public class NotificationController {
     public ResponseEntity<ApiResponse> getNotifications(
             @PathVariable UUID id,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size)
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "offset") String mode,
+            @RequestParam(required = false) String cursor)
     {
         return ResponseEntity.status(HttpStatus.OK).body(
                 new ApiResponse("Notification retrieved successfully",
-                        notificationService.getNotifications(id, page, size)));
+                        notificationService.getNotifications(id, page, size, mode, cursor)));
     }
 
     @PatchMapping("/{id}")
@@ -57,12 +57,14 @@ public class OrderController {
             @RequestParam(required = false) UUID userId,
             @RequestParam(required = false) UUID campaignId,
             @RequestParam(required = false) LocalDateTime expectedDeliveryDateMin,
-            @RequestParam(required = false) LocalDateTime expectedDeliveryDateMax
+            @RequestParam(required = false) LocalDateTime expectedDeliveryDateMax,
+            @RequestParam(defaultValue = "offset") String mode,
+            @RequestParam(required = false) String cursor
     ) {
         return ResponseEntity.ok(new ApiResponse("Orders retrieved successfully",
                 orderService.getOrders(
                         page, size, status, isDeleted, sortField, sortDirection, createdAtMin, createdAtMax, userId, campaignId,
-                        expectedDeliveryDateMin, expectedDeliveryDateMax
+                        expectedDeliveryDateMin, expectedDeliveryDateMax, mode, cursor
                 )));
     }
 
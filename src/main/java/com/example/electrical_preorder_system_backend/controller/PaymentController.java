@@ -5,6 +5,7 @@ import com.example.electrical_preorder_system_backend.dto.request.payment.Paymen
 import com.example.electrical_preorder_system_backend.dto.response.ApiResponse;
 import com.example.electrical_preorder_system_backend.enums.PaymentMethod;
 import com.example.electrical_preorder_system_backend.enums.PaymentStatus;
+import com.example.electrical_preorder_system_backend.service.payment.IPaymentWebhookService;
 import com.example.electrical_preorder_system_backend.service.payment.PaymentService;
 import com.example.electrical_preorder_system_backend.service.user.UserService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -32,6 +33,7 @@ public class PaymentController {
 
     private static final Logger log = LoggerFactory.getLogger(PaymentController.class);
     private final PaymentService paymentService;
+    private final IPaymentWebhookService paymentWebhookService;
     private final UserService userService;
 
     @PostMapping()
@@ -62,7 +64,7 @@ public class PaymentController {
     @Operation(summary = "Handle webhook call from PayOS")
     public ResponseEntity<Map<String,Boolean>> handleWebhook(@RequestBody PaymentPayload payload) {
         log.info("Handling webhook: {}", payload);
-        return ResponseEntity.ok(paymentService.handleWebhook(payload));
+        return ResponseEntity.ok(paymentWebhookService.receive(payload));
     }
 
     @GetMapping()
@@ -80,11 +82,13 @@ public class PaymentController {
             @RequestParam(required = false) PaymentMethod method,
             @RequestParam(required = false) LocalDateTime createdAtFrom,
             @RequestParam(required = false) LocalDateTime createdAtTo,
-            @RequestParam(required = false) UUID userId
+            @RequestParam(required = false) UUID userId,
+            @RequestParam(defaultValue = "offset") String mode,
+            @RequestParam(required = false) String cursor
     ) throws AccessDeniedException {
         return ResponseEntity.ok(new ApiResponse("Payments retrieved successfully",
                 paymentService.getPayments(
                         page, size, sortDirection, sortField, productId, amountFrom,
-                        amountTo, status, method, createdAtFrom, createdAtTo, userId)));
+                        amountTo, status, method, createdAtFrom, createdAtTo, userId, mode, cursor)));
     }
 }
@@ -7,6 +7,8 @@ import com.example.electrical_preorder_system_backend.dto.response.ApiResponse;
 import com.example.electrical_preorder_system_backend.dto.response.product.ProductDTO;
 import com.example.electrical_preorder_system_backend.dto.response.product.ProductDetailDTO;
 import com.example.electrical_preorder_system_backend.entity.Product;
+import com.example.electrical_preorder_system_backend.dto.response.product.ProductImportResultDTO;
+import com.example.electrical_preorder_system_backend.service.product.IProductImportService;
 import com.example.electrical_preorder_system_backend.service.product.IProductService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -33,26 +35,38 @@ import java.util.UUID;
 @Tag(name = "Product API", description = "APIs for Product management")
 public class ProductController {
 
+    private static final String RELEVANCE_SORT = "relevance";
+    private static final int MAX_AUTOCOMPLETE_LIMIT = 50;
+
     private final IProductService productService;
+    private final IProductImportService productImportService;
 
     @Operation(
             summary = "Get products with searching, filtering, sorting and pagination",
             description = "Returns a paginated list of products that can be filtered by category, search query, " +
-                    "and price range. Results can be sorted by any product field."
+                    "and price range. Results can be sorted by any product field, or by relevance to the search query, " +
+                    "which is the default when a query is given."
     )
     @GetMapping
     public ResponseEntity<ApiResponse> getProducts(
             @Parameter(description = "Page number (zero-based)") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Number of items per page") @RequestParam(defaultValue = "10") int size,
             @Parameter(description = "Filter by category name") @RequestParam(required = false) String category,
-            @Parameter(description = "Search query for name or product code") @RequestParam(required = false) String query,
+            @Parameter(description = "Search query for name, product code or description, accents are ignored") @RequestParam(required = false) String query,
             @Parameter(description = "Minimum price filter") @RequestParam(required = false) BigDecimal minPrice,
             @Parameter(description = "Maximum price filter") @RequestParam(required = false) BigDecimal maxPrice,
-            @Parameter(description = "Field to sort by") @RequestParam(defaultValue = "position") String sortBy,
+            @Parameter(description = "Field to sort by, or relevance") @RequestParam(required = false) String sortBy,
             @Parameter(description = "Sort direction (asc or desc)") @RequestParam(defaultValue = "asc") String sortDirection) {
 
-        Sort sort = sortDirection.equalsIgnoreCase("desc") ?
-                Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+        Sort sort;
+        if (RELEVANCE_SORT.equalsIgnoreCase(sortBy) || (sortBy == null && query != null && !query.isBlank())) {
+            // Left unsorted so the search orders by rank
+            sort = Sort.unsorted();
+        } else {
+            String field = sortBy != null ? sortBy : "position";
+            sort = sortDirection.equalsIgnoreCase("desc") ?
+                    Sort.by(field).descending() : Sort.by(field).ascending();
+        }
 
         Pageable pageable = PageRequest.of(page, size, sort);
 
@@ -79,6 +93,22 @@ public class ProductController {
         return ResponseEntity.ok(new ApiResponse("Product retrieved successfully", productDetail));
     }
 
+    @Operation(
+            summary = "Autocomplete products",
+            description = "Returns the products best matching what was typed so far. The last word matches as a prefix " +
+                    "and longer words tolerate one typo when the in-memory search index is enabled."
+    )
+    @GetMapping("/autocomplete")
+    public ResponseEntity<ApiResponse> autocomplete(
+            @Parameter(description = "Text typed in the search box", required = true) @RequestParam String query,
+            @Parameter(description = "Maximum number of products (1-50)") @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > MAX_AUTOCOMPLETE_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_AUTOCOMPLETE_LIMIT);
+        }
+        List<ProductDTO> products = productService.autocomplete(query, limit);
+        return ResponseEntity.ok(new ApiResponse("Products retrieved successfully", products));
+    }
+
     @Operation(
             summary = "Get total product count",
             description = "Returns the total count of active products"
@@ -105,6 +135,23 @@ public class ProductController {
         return ResponseEntity.ok(new ApiResponse("Product created successfully", productService.convertToDto(product)));
     }
 
+    @Operation(
+            summary = "Import products in bulk",
+            description = "Imports products from a CSV file with a header row or a JSON array of objects, with the fields " +
+                    "productCode, name, description, quantity, price, category and optionally position. " +
+                    "Missing categories are created. Invalid rows are skipped and reported. Requires admin role."
+    )
+    @SecurityRequirement(name = "Bearer Authentication")
+    @PostMapping(value = "/import", consumes = "multipart/form-data")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<ApiResponse> importProducts(
+            @Parameter(description = "CSV or JSON file", required = true) @RequestPart("file") MultipartFile file,
+            @Parameter(description = "csv or json, guessed from the file name when omitted")
+            @RequestParam(required = false) String format) {
+        ProductImportResultDTO result = productImportService.importProducts(file, format);
+        return ResponseEntity.ok(new ApiResponse("Products imported", result));
+    }
+
     @Operation(
             summary = "Update an existing product",
             description = "Update a product by ID with option to upload new images. Requires admin role."
@@ -0,0 +1,42 @@
+package com.example.electrical_preorder_system_backend.controller;
+
+import com.example.electrical_preorder_system_backend.dto.response.ApiResponse;
+import com.example.electrical_preorder_system_backend.dto.response.typeahead.TypeaheadDTO;
+import com.example.electrical_preorder_system_backend.service.typeahead.ITypeaheadService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("${api.prefix}/typeahead")
+@Tag(name = "Typeahead API", description = "Keystroke suggestions for category and product names")
+public class TypeaheadController {
+
+    private static final int MAX_LIMIT = 20;
+
+    private final ITypeaheadService typeaheadService;
+
+    @Operation(
+            summary = "Suggest categories and products",
+            description = "Returns the categories and products with a word of their name starting with the query, " +
+                    "accents and case ignored. Answered from memory, without database or cache access."
+    )
+    @GetMapping
+    public ResponseEntity<ApiResponse> suggest(
+            @Parameter(description = "Text typed so far", required = true) @RequestParam String query,
+            @Parameter(description = "Maximum number of suggestions of each kind (1-20)")
+            @RequestParam(defaultValue = "8") int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        TypeaheadDTO suggestions = typeaheadService.suggest(query, limit);
+        return ResponseEntity.ok(new ApiResponse("Suggestions retrieved successfully", suggestions));
+    }
+}
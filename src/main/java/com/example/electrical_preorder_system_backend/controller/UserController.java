@@ -80,12 +80,14 @@ public class UserController {
             @RequestParam(defaultValue = "ASC") String sortDirection,
             @RequestParam(required = false) LocalDateTime createdAtMin,
             @RequestParam(required = false) LocalDateTime createdAtMax,
-            @RequestParam(required = false) boolean isOnline
+            @RequestParam(required = false) boolean isOnline,
+            @RequestParam(defaultValue = "offset") String mode,
+            @RequestParam(required = false) String cursor
     ) {
         return ResponseEntity.ok(new ApiResponse("Users retrieved successfully",
                 userService.getUsers(
                         page, size, role, status, search, isVerified, isDeleted,
-                        sortField, sortDirection, createdAtMin, createdAtMax, isOnline)
+                        sortField, sortDirection, createdAtMin, createdAtMax, isOnline, mode, cursor)
                 ));
     }
 
@@ -0,0 +1,12 @@
+package com.example.electrical_preorder_system_backend.dto.request.payment;
+
+import com.example.electrical_preorder_system_backend.enums.PaymentStatus;
+
+/**
+ * Status reported for a payment by PayOS
+ *
+ * @param paymentId  payment id, the PayOS order code
+ * @param status     reported status
+ */
+public record PaymentStatusUpdate(Long paymentId, PaymentStatus status) {
+}
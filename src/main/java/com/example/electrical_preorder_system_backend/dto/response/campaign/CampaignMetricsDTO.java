@@ -0,0 +1,28 @@
+package com.example.electrical_preorder_system_backend.dto.response.campaign;
+
+import com.example.electrical_preorder_system_backend.dto.response.campaign_stage.CampaignStageMetricsDTO;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+public class CampaignMetricsDTO {
+    private UUID campaignId;
+    private long orderedQuantity;
+    private long orderCount;
+    private long pendingCount;
+    private long paidQuantity;
+    private long paidOrderCount;
+    private BigDecimal revenue;
+    private Integer targetQuantity;
+    // Paid quantity against the campaign maximum quantity
+    private double progressPercentage;
+    private List<CampaignStageMetricsDTO> stages = new ArrayList<>();
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,25 @@
+package com.example.electrical_preorder_system_backend.dto.response.campaign_stage;
+
+import com.example.electrical_preorder_system_backend.enums.CampaignStageStatus;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+public class CampaignStageMetricsDTO {
+    private UUID stageId;
+    private String name;
+    private CampaignStageStatus status;
+    private long paidQuantity;
+    // Order count and revenue are null when unknown, see CampaignStageMetrics
+    private Long paidOrderCount;
+    private BigDecimal revenue;
+    private Integer targetQuantity;
+    // Paid quantity against the stage target quantity
+    private double progressPercentage;
+    private LocalDateTime updatedAt;
+}
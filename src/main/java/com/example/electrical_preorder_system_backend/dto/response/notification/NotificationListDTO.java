@@ -18,4 +18,6 @@ public class NotificationListDTO {
     long totalElements;
     int currentPage;
     int pageSize;
+    // Set in keyset mode, where the totals are not counted
+    String nextCursor;
 }
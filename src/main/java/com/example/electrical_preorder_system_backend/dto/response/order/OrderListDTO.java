@@ -3,15 +3,20 @@ package com.example.electrical_preorder_system_backend.dto.response.order;
 import lombok.Builder;
 import lombok.Data;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @Data
 @Builder
 public class OrderListDTO {
     private List<OrderDTO> orders;
+    // Totals of the whole filtered set, not only of the current page
     private long totalAmount = 0L;
+    private BigDecimal averageAmount;
     private int totalPages;
     private long totalElements;
     private int currentPage;
     private int pageSize;
+    // Set in keyset mode, where the totals are not counted
+    private String nextCursor;
 }
@@ -25,7 +25,8 @@ public class ProductDTO {
     Integer quantity;
     String description;
     BigDecimal price;
-    Integer position;
+    // Sparse key the list is ordered by, not the place given as position when creating or updating a product
+    Integer sortKey;
     ProductStatus status;
     boolean isDeleted;
     CategoryDTO category;
@@ -0,0 +1,15 @@
+package com.example.electrical_preorder_system_backend.dto.response.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportErrorDTO {
+    // CSV line or JSON array element, counting from 1
+    private int row;
+    private String productCode;
+    private String message;
+}
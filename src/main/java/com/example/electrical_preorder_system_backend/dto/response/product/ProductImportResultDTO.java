@@ -0,0 +1,20 @@
+package com.example.electrical_preorder_system_backend.dto.response.product;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class ProductImportResultDTO {
+    private int totalRows;
+    private int importedRows;
+    private int failedRows;
+    private int createdCategories;
+    private long durationMs;
+    // Only the first errors are listed, see errorsTruncated
+    private List<ProductImportErrorDTO> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+}
@@ -0,0 +1,16 @@
+package com.example.electrical_preorder_system_backend.dto.response.typeahead;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TypeaheadDTO {
+    private List<TypeaheadSuggestionDTO> categories = new ArrayList<>();
+    private List<TypeaheadSuggestionDTO> products = new ArrayList<>();
+}
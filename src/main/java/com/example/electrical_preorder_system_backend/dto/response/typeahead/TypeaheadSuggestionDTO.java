@@ -0,0 +1,17 @@
+package com.example.electrical_preorder_system_backend.dto.response.typeahead;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TypeaheadSuggestionDTO {
+    private UUID id;
+    private String name;
+    // Null for categories
+    private String slug;
+}
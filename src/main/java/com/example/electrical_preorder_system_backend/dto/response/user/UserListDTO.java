@@ -13,4 +13,6 @@ public class UserListDTO {
     private long totalElements;
     private int currentPage;
     private int pageSize;
+    // Set in keyset mode, where the totals are not counted
+    private String nextCursor;
 }
@@ -23,6 +23,7 @@ import java.util.UUID;
         @Index(name = "idx_campaign_status", columnList = "status"),
         @Index(name = "idx_campaign_product_id", columnList = "product_id"),
         @Index(name = "idx_campaign_dates", columnList = "start_date, end_date"),
+        @Index(name = "idx_campaign_end_date", columnList = "end_date"),
         @Index(name = "idx_campaign_is_deleted", columnList = "is_deleted")
 })
 @DynamicUpdate
@@ -66,6 +67,10 @@ public class Campaign {
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
 
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @CreatedDate
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
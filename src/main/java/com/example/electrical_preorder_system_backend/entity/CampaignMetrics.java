@@ -0,0 +1,48 @@
+package com.example.electrical_preorder_system_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Running order and payment totals of a campaign, kept up to date by CampaignMetricsAggregator
+ * so reading them never scans the orders of the campaign
+ */
+@Entity
+@Table(name = "\"campaign_metrics\"")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class CampaignMetrics {
+    @Id
+    @Column(name = "campaign_id")
+    private UUID campaignId;
+
+    @Column(nullable = false)
+    private long orderedQuantity;
+
+    @Column(nullable = false)
+    private long orderCount;
+
+    @Column(nullable = false)
+    private long pendingCount;
+
+    @Column(nullable = false)
+    private long paidQuantity;
+
+    @Column(nullable = false)
+    private long paidOrderCount;
+
+    @Column(nullable = false)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -18,7 +18,9 @@ import java.util.UUID;
 @Entity
 @EntityListeners(AuditingEntityListener.class)
 @Table(name = "\"campaign_stage\"", indexes = {
-        @Index(name = "idx_campaign_stage_dates", columnList = "campaign_id, startDate, endDate")
+        @Index(name = "idx_campaign_stage_dates", columnList = "campaign_id, startDate, endDate"),
+        @Index(name = "idx_campaign_stage_start_date", columnList = "start_date"),
+        @Index(name = "idx_campaign_stage_end_date", columnList = "end_date")
 })
 @DynamicUpdate
 @NoArgsConstructor
@@ -57,6 +59,10 @@ public class CampaignStage {
     @JoinColumn(name = "campaign_id", nullable = false)
     private Campaign campaign;
 
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @CreatedDate
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,43 @@
+package com.example.electrical_preorder_system_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Running payment totals of a campaign stage, credited to the stage that was active when the orders were paid
+ */
+@Entity
+@Table(name = "\"campaign_stage_metrics\"", indexes = {
+        @Index(name = "idx_campaign_stage_metrics_campaign_id", columnList = "campaign_id")
+})
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class CampaignStageMetrics {
+    @Id
+    @Column(name = "campaign_stage_id")
+    private UUID campaignStageId;
+
+    @Column(name = "campaign_id", nullable = false)
+    private UUID campaignId;
+
+    @Column(nullable = false)
+    private long paidQuantity;
+
+    // Null when the stage sold before the metrics store and its orders could not be attributed to it
+    private Long paidOrderCount = 0L;
+
+    // Null for the same stages, later payments are not added to an unknown revenue
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -15,7 +15,9 @@ import java.util.UUID;
 
 @Entity
 @EntityListeners(AuditingEntityListener.class)
-@Table(name = "\"notification\"")
+@Table(name = "\"notification\"", indexes = {
+        @Index(name = "idx_notification_user_created_at", columnList = "user_id, created_at, id")
+})
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
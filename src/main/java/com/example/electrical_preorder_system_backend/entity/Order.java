@@ -18,7 +18,8 @@ import java.util.UUID;
 @EntityListeners(AuditingEntityListener.class)
 @Table(name = "\"order\"", indexes = {
         @Index(name = "idx_order_user_id", columnList = "user_id"),
-        @Index(name = "idx_order_campaign_id", columnList = "campaign_id")
+        @Index(name = "idx_order_campaign_id", columnList = "campaign_id"),
+        @Index(name = "idx_order_created_at", columnList = "created_at, id")
 })
 @NoArgsConstructor
 @AllArgsConstructor
@@ -62,6 +63,10 @@ public class Order {
     )
     private List<Payment> payments = new ArrayList<>();
 
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
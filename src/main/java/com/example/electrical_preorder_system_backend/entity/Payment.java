@@ -20,7 +20,8 @@ import java.util.UUID;
 @Entity
 @EntityListeners(AuditingEntityListener.class)
 @Table(name = "\"payment\"", indexes = {
-        @Index(name = "idx_payment_date", columnList = "date")
+        @Index(name = "idx_payment_date", columnList = "date"),
+        @Index(name = "idx_payment_created_at", columnList = "created_at, id")
 })
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,62 @@
+package com.example.electrical_preorder_system_backend.entity;
+
+import com.example.electrical_preorder_system_backend.enums.WebhookEventStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * PayOS webhook call as received, kept until a worker has applied it to its payment.
+ * The idempotency key makes redelivered calls a no-op.
+ */
+@Entity
+@Table(name = "\"payment_webhook_event\"", indexes = {
+        @Index(name = "idx_payment_webhook_event_key", columnList = "idempotency_key", unique = true),
+        @Index(name = "idx_payment_webhook_event_pending", columnList = "status, next_attempt_at, id"),
+        @Index(name = "idx_payment_webhook_event_order_code", columnList = "order_code")
+})
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class PaymentWebhookEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_code", nullable = false)
+    private Long orderCode;
+
+    @Column(name = "idempotency_key", nullable = false)
+    private String idempotencyKey;
+
+    // Result code reported by PayOS for the payment, see PaymentStatus.fromCode
+    @Column(name = "status_code")
+    private String statusCode;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private WebhookEventStatus status = WebhookEventStatus.PENDING;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "received_at", nullable = false)
+    private LocalDateTime receivedAt;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+}
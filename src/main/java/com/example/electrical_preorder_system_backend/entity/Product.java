@@ -1,6 +1,7 @@
 package com.example.electrical_preorder_system_backend.entity;
 
 import com.example.electrical_preorder_system_backend.enums.ProductStatus;
+import com.example.electrical_preorder_system_backend.util.SlugUtil;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import lombok.Getter;
@@ -65,6 +66,10 @@ public class Product {
     @Column(nullable = false)
     private boolean isDeleted = false;
 
+    // Accent-folded name, code and description, indexed for full-text and trigram search by ProductSearchIndexInitializer
+    @Column(columnDefinition = "TEXT")
+    private String searchText;
+
     @ManyToOne(fetch = FetchType.LAZY, cascade = CascadeType.PERSIST)
     @JoinColumn(name = "category_id", nullable = false)
     private Category category;
@@ -72,6 +77,10 @@ public class Product {
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<ImageProduct> imageProducts = new ArrayList<>();
 
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -89,4 +98,10 @@ public class Product {
         this.position = position;
         this.category = category;
     }
+
+    @PrePersist
+    @PreUpdate
+    void refreshSearchText() {
+        this.searchText = SlugUtil.searchText(name, productCode, description);
+    }
 }
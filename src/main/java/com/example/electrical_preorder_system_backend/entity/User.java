@@ -20,7 +20,8 @@ import java.util.UUID;
 @Table(name = "\"user\"", indexes = {
         @Index(name = "idx_user_name", columnList = "username"),
         @Index(name = "idx_email", columnList = "email"),
-        @Index(name = "idx_phone_number", columnList = "phone_number")
+        @Index(name = "idx_phone_number", columnList = "phone_number"),
+        @Index(name = "idx_user_created_at", columnList = "created_at, id")
 })
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,7 @@
+package com.example.electrical_preorder_system_backend.enums;
+
+public enum PaymentUpdateOutcome {
+    APPLIED,
+    ALREADY_SETTLED,
+    NOT_FOUND
+}
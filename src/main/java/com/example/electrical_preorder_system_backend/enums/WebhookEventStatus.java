@@ -0,0 +1,8 @@
+package com.example.electrical_preorder_system_backend.enums;
+
+public enum WebhookEventStatus {
+    PENDING,
+    PROCESSED,
+    IGNORED,
+    FAILED
+}
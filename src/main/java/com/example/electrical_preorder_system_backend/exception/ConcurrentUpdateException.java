@@ -0,0 +1,7 @@
+package com.example.electrical_preorder_system_backend.exception;
+
+public class ConcurrentUpdateException extends RuntimeException {
+    public ConcurrentUpdateException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -56,6 +56,20 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(Map.of("message", ex.getMessage()), HttpStatus.CONFLICT);
     }
 
+    @ExceptionHandler(ConcurrentUpdateException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ResponseEntity<Map<String, String>> handleConcurrentUpdateException(ConcurrentUpdateException ex) {
+        log.error("Concurrent update error: {}", ex.getMessage(), ex);
+        return new ResponseEntity<>(Map.of("message", ex.getMessage()), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(PaymentGatewayException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ResponseEntity<Map<String, String>> handlePaymentGatewayException(PaymentGatewayException ex) {
+        log.error("Payment gateway error: {}", ex.getMessage(), ex);
+        return new ResponseEntity<>(Map.of("message", ex.getMessage()), HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ResponseEntity<Map<String, String>> handleIllegalArgumentException(IllegalArgumentException ex) {
@@ -0,0 +1,23 @@
+package com.example.electrical_preorder_system_backend.exception;
+
+/**
+ * Payment provider call failed. Retryable failures (timeouts, connection errors) may succeed
+ * when tried again, the others are answers of the provider or calls refused locally.
+ */
+public class PaymentGatewayException extends RuntimeException {
+
+    private final boolean retryable;
+
+    public PaymentGatewayException(String message, boolean retryable, Throwable cause) {
+        super(message, cause);
+        this.retryable = retryable;
+    }
+
+    public PaymentGatewayException(String message, boolean retryable) {
+        this(message, retryable, null);
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+}
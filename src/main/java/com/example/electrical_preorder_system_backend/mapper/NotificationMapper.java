@@ -31,4 +31,15 @@ public class NotificationMapper {
                 .pageSize(pageSize)
                 .build();
     }
+
+    /** List of a keyset page, the totals are not counted and are -1 */
+    public static NotificationListDTO toNotificationListDTO(List<Notification> notifications, String nextCursor, int pageSize) {
+        return NotificationListDTO.builder()
+                .notifications(notifications.stream().map(NotificationMapper::toNotificationDTO).toList())
+                .totalPages(-1)
+                .totalElements(-1)
+                .pageSize(pageSize)
+                .nextCursor(nextCursor)
+                .build();
+    }
 }
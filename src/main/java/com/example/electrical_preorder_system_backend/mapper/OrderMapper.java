@@ -33,4 +33,16 @@ public class OrderMapper {
                 .pageSize(pageSize)
                 .build();
     }
+
+    /** List of a keyset page, the totals are not computed and are -1 */
+    public static OrderListDTO toOrderListDTO(List<Order> orders, String nextCursor, int pageSize) {
+        return OrderListDTO.builder()
+                .orders(orders.stream().map(OrderMapper::toOrderDTO).collect(Collectors.toList()))
+                .totalPages(-1)
+                .totalAmount(-1)
+                .totalElements(-1)
+                .pageSize(pageSize)
+                .nextCursor(nextCursor)
+                .build();
+    }
 }
@@ -5,7 +5,9 @@ import com.example.electrical_preorder_system_backend.dto.response.payment.Payme
 import com.example.electrical_preorder_system_backend.entity.Order;
 import com.example.electrical_preorder_system_backend.entity.Payment;
 import com.example.electrical_preorder_system_backend.entity.Product;
+import com.example.electrical_preorder_system_backend.enums.PaymentStatus;
 import vn.payos.type.ItemData;
+import vn.payos.type.PaymentLinkData;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -20,6 +22,23 @@ public class PaymentMapper {
                 .build();
     }
 
+    /** Status of a PayOS payment link
+     *
+     * @param link Link information returned by PayOS
+     * @return Matching payment status, null when the link or its status is missing or unknown
+     */
+    public static PaymentStatus toPaymentStatus(PaymentLinkData link) {
+        if (link == null || link.getStatus() == null) {
+            return null;
+        }
+        for (PaymentStatus status : PaymentStatus.values()) {
+            if (status.name().equals(link.getStatus())) {
+                return status;
+            }
+        }
+        return null;
+    }
+
     public static PaymentDTO toPaymentDTO(Payment payment) {
         return PaymentDTO.builder()
                 .id(payment.getId())
@@ -44,4 +63,15 @@ public class PaymentMapper {
                 .build();
     }
 
-}
\ No newline at end of file
+    /** List of a keyset page, the totals are not computed and are -1 */
+    public static PaymentListDTO toPaymentListDTO(List<Payment> payments, String nextCursor, int pageSize) {
+        return PaymentListDTO.builder()
+                .payments(payments.stream().map(PaymentMapper::toPaymentDTO).collect(Collectors.toList()))
+                .totalAmount(-1)
+                .totalPages(-1)
+                .totalElements(-1)
+                .pageSize(pageSize)
+                .nextCursor(nextCursor)
+                .build();
+    }
+}
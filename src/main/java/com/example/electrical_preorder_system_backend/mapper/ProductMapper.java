@@ -1,8 +1,12 @@
 package com.example.electrical_preorder_system_backend.mapper;
 
 import com.example.electrical_preorder_system_backend.dto.response.product.ProductDTO;
+import com.example.electrical_preorder_system_backend.dto.response.product_images.ImageProductDTO;
+import com.example.electrical_preorder_system_backend.entity.ImageProduct;
 import com.example.electrical_preorder_system_backend.entity.Product;
 
+import java.util.List;
+
 
 public class ProductMapper {
 
@@ -15,7 +19,7 @@ public class ProductMapper {
         productDTO.setQuantity(product.getQuantity());
         productDTO.setDescription(product.getDescription());
         productDTO.setPrice(product.getPrice());
-        productDTO.setPosition(product.getPosition());
+        productDTO.setSortKey(product.getPosition());
         productDTO.setStatus(product.getStatus());
         productDTO.setDeleted(product.isDeleted());
         productDTO.setCategory(CategoryMapper.toCategoryDTO(product.getCategory()));
@@ -23,4 +27,17 @@ public class ProductMapper {
         productDTO.setUpdatedAt(product.getUpdatedAt());
         return productDTO;
     }
+
+    public static ProductDTO toProductDTO(Product product, List<ImageProduct> images) {
+        ProductDTO productDTO = toProductDTO(product);
+        productDTO.setImageProducts(images.stream()
+                .map(image -> {
+                    ImageProductDTO imageDTO = new ImageProductDTO();
+                    imageDTO.setAltText(image.getAltText());
+                    imageDTO.setImageUrl(image.getImageUrl());
+                    return imageDTO;
+                })
+                .toList());
+        return productDTO;
+    }
 }
@@ -40,4 +40,18 @@ public class UserMapper {
                 .build();
     }
 
+    /** List of a keyset page, the totals are not counted and are -1 */
+    public static UserListDTO toUserListDTO(List<User> users, String nextCursor, int pageSize) {
+        return UserListDTO.builder()
+                .users(
+                        users.stream()
+                                .map(UserMapper::toUserDTO)
+                                .toList()
+                )
+                .totalPages(-1)
+                .totalElements(-1)
+                .pageSize(pageSize)
+                .nextCursor(nextCursor)
+                .build();
+    }
 }
@@ -0,0 +1,97 @@
+package com.example.electrical_preorder_system_backend.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+
+/**
+ * SUM, COUNT and AVG of an amount column over every row matching a specification, computed by the
+ * database in one statement. The specification is applied in an id subquery, so the joins some
+ * filters add (payment to orders for instance) cannot count a row twice.
+ * Results are kept for a few seconds per filter, enough to absorb dashboards that poll the same totals.
+ */
+@Repository
+public class AggregateTotalsRepository {
+
+    public record AggregateTotals(BigDecimal sum, long count, BigDecimal average) {
+    }
+
+    private final EntityManager entityManager;
+    private final Cache<String, AggregateTotals> totals;
+
+    public AggregateTotalsRepository(EntityManager entityManager,
+                                     @Value("${listing.totals.cache-ttl-seconds:10}") long cacheTtlSeconds) {
+        this.entityManager = entityManager;
+        this.totals = Caffeine.newBuilder()
+                .maximumSize(cacheTtlSeconds > 0 ? 1000 : 0)
+                .expireAfterWrite(Duration.ofSeconds(Math.max(cacheTtlSeconds, 1)))
+                .build();
+    }
+
+    /** Aggregate a numeric field over the rows matching a specification
+     *
+     * @param entityClass Entity class, its id must be named id
+     * @param spec Filters, null for every row
+     * @param field Numeric field to aggregate
+     * @param cacheKey Key identifying the filter values, null to skip the cache
+     * @return Sum, count and average, zero when nothing matches
+     */
+    public <T> AggregateTotals aggregate(Class<T> entityClass, Specification<T> spec, String field, String cacheKey) {
+        if (cacheKey == null) {
+            return query(entityClass, spec, field);
+        }
+        return totals.get(entityClass.getSimpleName() + ":" + field + ":" + cacheKey,
+                key -> query(entityClass, spec, field));
+    }
+
+    private <T> AggregateTotals query(Class<T> entityClass, Specification<T> spec, String field) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(entityClass);
+
+        if (spec != null) {
+            Subquery<Object> matching = query.subquery(Object.class);
+            Root<T> filtered = matching.from(entityClass);
+            matching.select(filtered.get("id"));
+            Predicate predicate = spec.toPredicate(filtered, query, cb);
+            if (predicate != null) {
+                matching.where(predicate);
+            }
+            query.where(root.get("id").in(matching));
+        }
+        // Specifications may ask for distinct rows, which an aggregate row does not need
+        query.distinct(false);
+        query.multiselect(
+                cb.sum(root.<BigDecimal>get(field)),
+                cb.count(root),
+                cb.avg(root.<BigDecimal>get(field)));
+
+        Tuple row = entityManager.createQuery(query).getSingleResult();
+        BigDecimal sum = toBigDecimal(row.get(0));
+        Double average = (Double) row.get(2);
+        return new AggregateTotals(
+                sum,
+                (Long) row.get(1),
+                average == null ? BigDecimal.ZERO : BigDecimal.valueOf(average).setScale(2, RoundingMode.HALF_UP));
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.electrical_preorder_system_backend.repository;
+
+import com.example.electrical_preorder_system_backend.entity.CampaignMetrics;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface CampaignMetricsRepository extends JpaRepository<CampaignMetrics, UUID> {
+}
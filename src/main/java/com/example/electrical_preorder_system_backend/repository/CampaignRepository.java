@@ -4,8 +4,10 @@ import com.example.electrical_preorder_system_backend.entity.Campaign;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -27,4 +29,31 @@ public interface CampaignRepository extends JpaRepository<Campaign, UUID>, JpaSp
     List<Campaign> findActiveCampaignsByProductId(UUID productId);
 
     Campaign findByName(String name);
+
+    /**
+     * Find campaigns that start or end inside a time window
+     *
+     * @param from  window start, exclusive for start dates
+     * @param to    window end, inclusive
+     * @return      campaigns with an upcoming status boundary
+     */
+    @Query(value = "SELECT * FROM campaign " +
+            "WHERE is_deleted = false AND status <> 'CANCELLED' " +
+            "AND ((start_date > :from AND start_date <= :to) OR (end_date >= :from AND end_date <= :to))",
+            nativeQuery = true)
+    List<Campaign> findCampaignsWithBoundaryBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Find ids of campaigns whose stored status does not match their dates anymore
+     *
+     * @param now   current time
+     * @return      ids of campaigns that missed a transition
+     */
+    @Query(value = "SELECT id FROM campaign " +
+            "WHERE is_deleted = false AND status <> 'CANCELLED' AND (" +
+            "(start_date > :now AND status <> 'SCHEDULED') OR " +
+            "(start_date <= :now AND end_date >= :now AND status <> 'ACTIVE') OR " +
+            "(end_date < :now AND status <> 'COMPLETED'))",
+            nativeQuery = true)
+    List<UUID> findIdsWithStaleStatus(@Param("now") LocalDateTime now);
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.example.electrical_preorder_system_backend.repository;
+
+import com.example.electrical_preorder_system_backend.entity.CampaignStageMetrics;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface CampaignStageMetricsRepository extends JpaRepository<CampaignStageMetrics, UUID> {
+
+    List<CampaignStageMetrics> findAllByCampaignId(UUID campaignId);
+}
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -23,4 +24,31 @@ public interface CampaignStageRepository extends JpaRepository<CampaignStage, UU
 
     @Query("SELECT cs FROM CampaignStage cs WHERE cs.campaign.id = :campaignId AND cs.isDeleted = false")
     List<CampaignStage> findStageByCampaignIdAndIsDeletedFalse(@Param("campaignId") UUID campaignId);
+
+    /**
+     * Find stages that start or end inside a time window
+     *
+     * @param from  window start, exclusive for start dates
+     * @param to    window end, inclusive
+     * @return      stages with an upcoming status boundary
+     */
+    @Query(value = "SELECT * FROM campaign_stage " +
+            "WHERE is_deleted = false " +
+            "AND ((start_date > :from AND start_date <= :to) OR (end_date >= :from AND end_date <= :to))",
+            nativeQuery = true)
+    List<CampaignStage> findStagesWithBoundaryBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Find ids of stages whose stored status does not match their dates anymore
+     *
+     * @param now   current time
+     * @return      ids of stages that missed a transition
+     */
+    @Query(value = "SELECT id FROM campaign_stage " +
+            "WHERE is_deleted = false AND (" +
+            "(start_date > :now AND status <> 'UPCOMING') OR " +
+            "(start_date <= :now AND end_date >= :now AND status <> 'ACTIVE') OR " +
+            "(end_date < :now AND status <> 'COMPLETED'))",
+            nativeQuery = true)
+    List<UUID> findIdsWithStaleStatus(@Param("now") LocalDateTime now);
 }
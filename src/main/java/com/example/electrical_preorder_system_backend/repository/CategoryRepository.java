@@ -2,8 +2,6 @@ package com.example.electrical_preorder_system_backend.repository;
 
 import com.example.electrical_preorder_system_backend.entity.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -16,7 +14,4 @@ public interface CategoryRepository extends JpaRepository<Category, UUID> {
     List<Category> findByIsDeletedFalseOrderByNameAsc();
 
     Category findByNameIgnoreCase(String trimmedName);
-
-    @Query("SELECT c FROM Category c WHERE c.isDeleted = false AND LOWER(c.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) ORDER BY c.name ASC")
-    List<Category> searchCategoriesByName(@Param("searchTerm") String searchTerm);
 }
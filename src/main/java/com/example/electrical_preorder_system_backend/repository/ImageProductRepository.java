@@ -2,10 +2,23 @@ package com.example.electrical_preorder_system_backend.repository;
 
 import com.example.electrical_preorder_system_backend.entity.ImageProduct;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface ImageProductRepository extends JpaRepository<ImageProduct, UUID> {
+
+    /**
+     * Active images of several products in one query
+     *
+     * @param productIds product ids
+     * @return          images, product proxies are not initialized
+     */
+    @Query("SELECT ip FROM ImageProduct ip WHERE ip.product.id IN :productIds AND ip.isDeleted = false")
+    List<ImageProduct> findActiveByProductIds(@Param("productIds") Collection<UUID> productIds);
 }
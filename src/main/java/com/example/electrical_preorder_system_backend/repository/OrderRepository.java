@@ -61,7 +61,7 @@ public interface OrderRepository extends JpaRepository<Order, UUID>, JpaSpecific
             "ORDER BY CASE WHEN status = 'PENDING' THEN 1 ELSE 0 END, created_at DESC",
             countQuery = "SELECT count(*) " +
                     "FROM \"order\" " +
-                    "WHERE user_id = ?1 AND status = ?2",
+                    "WHERE user_id = ?1 AND status = ?2 AND is_deleted = false",
             nativeQuery = true)
     Page<Order> findAllByUserIdAndStatus(UUID userId, String status, Pageable pageable);
 
@@ -3,12 +3,18 @@ package com.example.electrical_preorder_system_backend.repository;
 import com.example.electrical_preorder_system_backend.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
@@ -17,6 +23,22 @@ public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpec
 
     boolean existsBySlug(String slug);
 
+    /**
+     * Page of products matching a specification, with the category joined into the same query
+     * so mapping the page does not load each category separately
+     */
+    @EntityGraph(attributePaths = "category")
+    Page<Product> findAll(Specification<Product> spec, Pageable pageable);
+
+    @EntityGraph(attributePaths = "category")
+    List<Product> findByIdIn(Collection<UUID> ids);
+
+    /**
+     * Id, name and slug of every product that is not deleted
+     */
+    @Query("SELECT p.id, p.name, p.slug FROM Product p WHERE p.isDeleted = false")
+    List<Object[]> findActiveNames();
+
     @Query(value = "SELECT * " +
             "FROM product " +
             "WHERE is_deleted = false " +
@@ -44,4 +66,41 @@ public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpec
 
     @Query("SELECT COUNT(p) FROM Product p WHERE p.category.id = :categoryId AND p.isDeleted = false")
     long countByCategoryIdAndIsDeletedFalse(@Param("categoryId") UUID categoryId);
+
+    @Query("SELECT p.quantity FROM Product p WHERE p.id = :id")
+    Integer findQuantityById(@Param("id") UUID id);
+
+    /**
+     * Take quantity out of the stock of a product in one statement, only if enough is left
+     *
+     * @param id        product id
+     * @param quantity  quantity to take
+     * @return          number of updated rows, 0 if the stock is too low
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE product " +
+            "SET quantity = quantity - :quantity " +
+            "WHERE id = :id AND quantity >= :quantity",
+            nativeQuery = true)
+    int decrementQuantity(@Param("id") UUID id, @Param("quantity") int quantity);
+
+    /**
+     * Put quantity back into the stock of a product in one statement
+     *
+     * @param id        product id
+     * @param quantity  quantity to give back
+     * @return          number of updated rows
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE product " +
+            "SET quantity = quantity + :quantity " +
+            "WHERE id = :id",
+            nativeQuery = true)
+    int incrementQuantity(@Param("id") UUID id, @Param("quantity") int quantity);
+
+    default boolean tryDecrementQuantity(UUID id, int quantity) {
+        return decrementQuantity(id, quantity) > 0;
+    }
 }
\ No newline at end of file
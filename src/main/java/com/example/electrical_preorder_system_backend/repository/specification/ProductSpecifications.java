@@ -1,6 +1,9 @@
 package com.example.electrical_preorder_system_backend.repository.specification;
 
+import com.example.electrical_preorder_system_backend.config.jpa.SearchFunctionContributor;
 import com.example.electrical_preorder_system_backend.entity.Product;
+import com.example.electrical_preorder_system_backend.util.SlugUtil;
+import jakarta.persistence.criteria.Expression;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
@@ -14,13 +17,32 @@ public class ProductSpecifications {
         return (root, query, cb) -> cb.equal(cb.lower(root.get("category").get("name")), category.toLowerCase());
     }
 
+    /** Products whose name, code or description contain the words of the query, or the query as a substring.
+     * Accents and case are ignored. Unless the page asks for another sort, the best matches come first.
+     *
+     * @param query Search text
+     * @return Specification, matching everything when the query has no letter or digit
+     */
     public static Specification<Product> matchesQuery(String query) {
-        String likePattern = "%" + query.toLowerCase() + "%";
-        return (root, criteriaQuery, cb) -> cb.or(
-                cb.like(cb.lower(root.get("name")), likePattern),
-                cb.like(cb.lower(root.get("productCode")), likePattern),
-                cb.like(cb.lower(root.get("description")), likePattern)
-        );
+        String normalized = SlugUtil.normalize(query);
+        if (normalized.isEmpty()) {
+            return null;
+        }
+        String likePattern = "%" + normalized + "%";
+        return (root, criteriaQuery, cb) -> {
+            Expression<String> searchText = root.get("searchText");
+            Expression<Boolean> wordMatch = cb.function(SearchFunctionContributor.TEXT_MATCH, Boolean.class,
+                    searchText, cb.literal(normalized));
+            // Rank only the page query, a count query has no ordering
+            if (criteriaQuery.getResultType() != Long.class && criteriaQuery.getResultType() != long.class) {
+                criteriaQuery.orderBy(
+                        cb.desc(cb.function(SearchFunctionContributor.TEXT_RANK, Double.class,
+                                searchText, cb.literal(normalized))),
+                        cb.asc(root.get("position")),
+                        cb.asc(root.get("id")));
+            }
+            return cb.or(cb.isTrue(wordMatch), cb.like(searchText, likePattern));
+        };
     }
 
     public static Specification<Product> priceGreaterThanOrEqual(BigDecimal price) {
@@ -0,0 +1,141 @@
+package com.example.electrical_preorder_system_backend.service.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tag index for cached entries. Each tag is a Redis set holding the keys of the entries that depend on it,
+ * so a write deletes exactly those keys with pipelined UNLINKs instead of scanning the keyspace with KEYS.
+ * With a stale TTL configured, the keys are renamed to short-lived stale copies instead of being deleted.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CacheTagService implements ICacheTagService {
+
+    private static final String TAG_PREFIX = "cache-tag:";
+    private static final int BATCH_SIZE = 500;
+    // Outlives the cached entries (1 hour), so a live entry never loses its tags
+    private static final long TAG_TTL_SECONDS = 2 * 60 * 60;
+
+    // Moves each live entry to its stale copy, which is served while SingleFlightCache rebuilds the entry
+    private static final DefaultRedisScript<Long> RETIRE_SCRIPT = new DefaultRedisScript<>(
+            "for _, key in ipairs(KEYS) do " +
+            "if redis.call('EXISTS', key) == 1 then " +
+            "redis.call('RENAME', key, ARGV[1] .. key) " +
+            "redis.call('PEXPIRE', ARGV[1] .. key, ARGV[2]) " +
+            "end end " +
+            "return #KEYS",
+            Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final NearCache nearCache;
+
+    @Value("${cache.stampede.stale-ttl-ms:30000}")
+    private long staleTtlMs;
+
+    @Override
+    public void tag(String key, Collection<String> tags) {
+        if (tags.isEmpty()) {
+            return;
+        }
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                for (String tag : new LinkedHashSet<>(tags)) {
+                    conn.sAdd(TAG_PREFIX + tag, key);
+                    conn.expire(TAG_PREFIX + tag, TAG_TTL_SECONDS);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Failed to tag cache key {}: {}", key, e.getMessage());
+        }
+    }
+
+    @Override
+    public void invalidate(Collection<String> tags) {
+        if (tags.isEmpty()) {
+            return;
+        }
+        List<String> tagKeys = tags.stream().distinct().map(tag -> TAG_PREFIX + tag).toList();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deleteTagged(tagKeys);
+                }
+            });
+        } else {
+            deleteTagged(tagKeys);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void deleteTagged(List<String> tagKeys) {
+        try {
+            List<Object> memberSets = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                tagKeys.forEach(conn::sMembers);
+                return null;
+            });
+
+            Set<String> keys = new LinkedHashSet<>();
+            memberSets.forEach(members -> keys.addAll((Set<String>) members));
+            List<String> keyList = new ArrayList<>(keys);
+            if (staleTtlMs > 0) {
+                retire(keyList);
+            } else {
+                unlink(keyList);
+            }
+            nearCache.invalidate(keyList);
+
+            // Only the members read above are dropped, keys tagged meanwhile stay registered
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                for (int i = 0; i < tagKeys.size(); i++) {
+                    Set<String> members = (Set<String>) memberSets.get(i);
+                    if (!members.isEmpty()) {
+                        conn.sRem(tagKeys.get(i), members.toArray(String[]::new));
+                    }
+                }
+                return null;
+            });
+            log.debug("Invalidated {} cache entries for tags {}", keys.size(), tagKeys);
+        } catch (Exception e) {
+            log.error("Failed to invalidate cache tags {}: {}", tagKeys, e.getMessage());
+        }
+    }
+
+    private void unlink(List<String> keys) {
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (int from = 0; from < keys.size(); from += BATCH_SIZE) {
+                conn.unlink(keys.subList(from, Math.min(from + BATCH_SIZE, keys.size())).toArray(String[]::new));
+            }
+            return null;
+        });
+    }
+
+    private void retire(List<String> keys) {
+        String staleTtl = String.valueOf(staleTtlMs);
+        for (int from = 0; from < keys.size(); from += BATCH_SIZE) {
+            List<String> batch = keys.subList(from, Math.min(from + BATCH_SIZE, keys.size()));
+            stringRedisTemplate.execute(RETIRE_SCRIPT, batch, SingleFlightCache.STALE_PREFIX, staleTtl);
+        }
+    }
+}
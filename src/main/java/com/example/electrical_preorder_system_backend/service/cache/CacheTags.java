@@ -0,0 +1,39 @@
+package com.example.electrical_preorder_system_backend.service.cache;
+
+import java.util.UUID;
+
+/**
+ * Names of the tags cached entries are registered under. A write invalidates the tags of the rows it
+ * touched; list tags are used when the write can change which rows a cached list contains.
+ */
+public final class CacheTags {
+
+    public static final String PRODUCT_LIST = "product-list";
+    public static final String CAMPAIGN_LIST = "campaign-list";
+    public static final String CATEGORY_LIST = "category-list";
+
+    private CacheTags() {
+    }
+
+    public static String product(UUID productId) {
+        return "product:" + productId;
+    }
+
+    public static String category(UUID categoryId) {
+        return "category:" + categoryId;
+    }
+
+    public static String campaign(UUID campaignId) {
+        return "campaign:" + campaignId;
+    }
+
+    /** Redis key of an entry stored through the Spring cache abstraction
+     *
+     * @param cacheName Cache name, e.g. products
+     * @param key Key inside the cache
+     * @return Key as written by the RedisCacheManager
+     */
+    public static String cacheKey(String cacheName, String key) {
+        return cacheName + "::" + key;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.electrical_preorder_system_backend.service.cache;
+
+import java.util.Collection;
+
+public interface ICacheTagService {
+
+    /** Register a cached Redis key under tags, so it is deleted when any of them is invalidated
+     *
+     * @param key Redis key of the cached entry
+     * @param tags Tags the entry depends on, see CacheTags
+     */
+    void tag(String key, Collection<String> tags);
+
+    /** Delete every key registered under the tags
+     * If a transaction is active, the keys are deleted once it commits
+     *
+     * @param tags Tags to invalidate, see CacheTags
+     */
+    void invalidate(Collection<String> tags);
+}
@@ -0,0 +1,93 @@
+package com.example.electrical_preorder_system_backend.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Bounded in-process copy of hot Redis cache entries, keyed by their Redis key. Entries expire after a short
+ * TTL, and every invalidation is broadcast on a Redis channel so the other nodes drop their copies too.
+ */
+@Slf4j
+@Component
+public class NearCache implements MessageListener {
+
+    public static final String INVALIDATION_CHANNEL = "cache-invalidation";
+    private static final String CLEAR_ALL = "*";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final boolean enabled;
+    private final Cache<String, Object> entries;
+
+    public NearCache(StringRedisTemplate stringRedisTemplate,
+                     @Value("${cache.near.enabled:true}") boolean enabled,
+                     @Value("${cache.near.maximum-size:10000}") long maximumSize,
+                     @Value("${cache.near.ttl-seconds:30}") long ttlSeconds) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.enabled = enabled;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    public Object get(String key) {
+        return enabled ? entries.getIfPresent(key) : null;
+    }
+
+    public void put(String key, Object value) {
+        if (enabled && value != null) {
+            entries.put(key, value);
+        }
+    }
+
+    /** Drop keys here and on every other node
+     *
+     * @param keys Redis keys of the invalidated entries
+     */
+    public void invalidate(Collection<String> keys) {
+        if (!enabled || keys.isEmpty()) {
+            return;
+        }
+        entries.invalidateAll(keys);
+        publish(String.join("\n", keys));
+    }
+
+    /** Drop every entry here and on every other node
+     */
+    public void invalidateAll() {
+        if (!enabled) {
+            return;
+        }
+        entries.invalidateAll();
+        publish(CLEAR_ALL);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (CLEAR_ALL.equals(body)) {
+            entries.invalidateAll();
+        } else {
+            entries.invalidateAll(Arrays.asList(body.split("\n")));
+        }
+    }
+
+    private void publish(String body) {
+        try {
+            stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, body);
+        } catch (Exception e) {
+            log.error("Failed to broadcast near cache invalidation: {}", e.getMessage());
+        }
+    }
+}
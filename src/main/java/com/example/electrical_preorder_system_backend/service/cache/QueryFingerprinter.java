@@ -0,0 +1,172 @@
+package com.example.electrical_preorder_system_backend.service.cache;
+
+import com.example.electrical_preorder_system_backend.dto.filter.CampaignFilterCriteria;
+import com.example.electrical_preorder_system_backend.dto.filter.ProductFilterCriteria;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Canonical cache keys for filtered list queries. Criteria are normalized first (the callers query with the
+ * normalized copy as well), written as a canonical string and hashed to a 128-bit digest, so equivalent
+ * requests share an entry and different ones can never collide the way hashCode based keys could.
+ * Hits and misses are counted per query shape, i.e. which filters and which sort were used.
+ */
+@Component
+public class QueryFingerprinter {
+
+    private static final String FORMAT_VERSION = "v1";
+
+    private final ConcurrentHashMap<String, LongAdder[]> shapeStats = new ConcurrentHashMap<>();
+
+    public record QueryFingerprint(String key, String shape) {
+    }
+
+    public ProductFilterCriteria normalize(ProductFilterCriteria criteria) {
+        ProductFilterCriteria normalized = new ProductFilterCriteria();
+        normalized.setCategory(normalizeText(criteria.getCategory()));
+        normalized.setQuery(normalizeText(criteria.getQuery()));
+        normalized.setMinPrice(normalizeDecimal(criteria.getMinPrice()));
+        normalized.setMaxPrice(normalizeDecimal(criteria.getMaxPrice()));
+        return normalized;
+    }
+
+    public CampaignFilterCriteria normalize(CampaignFilterCriteria criteria) {
+        CampaignFilterCriteria normalized = new CampaignFilterCriteria();
+        normalized.setName(normalizeText(criteria.getName()));
+        normalized.setStatus(criteria.getStatus());
+        normalized.setProductId(criteria.getProductId());
+        normalized.setStartDateFrom(criteria.getStartDateFrom());
+        normalized.setStartDateTo(criteria.getStartDateTo());
+        normalized.setEndDateFrom(criteria.getEndDateFrom());
+        normalized.setEndDateTo(criteria.getEndDateTo());
+        return normalized;
+    }
+
+    /** Key of a product list page, criteria must already be normalized
+     *
+     * @param criteria Normalized product filters
+     * @param pageable Page request
+     * @return Cache key and query shape
+     */
+    public QueryFingerprint fingerprint(ProductFilterCriteria criteria, Pageable pageable) {
+        Map<String, String> fields = new TreeMap<>();
+        put(fields, "category", criteria.getCategory());
+        put(fields, "query", criteria.getQuery());
+        put(fields, "minPrice", criteria.getMinPrice());
+        put(fields, "maxPrice", criteria.getMaxPrice());
+        return fingerprint("products-filtered-", "product", fields, pageable);
+    }
+
+    /** Key of a campaign list page, criteria must already be normalized
+     *
+     * @param criteria Normalized campaign filters
+     * @param pageable Page request
+     * @return Cache key and query shape
+     */
+    public QueryFingerprint fingerprint(CampaignFilterCriteria criteria, Pageable pageable) {
+        Map<String, String> fields = new TreeMap<>();
+        put(fields, "name", criteria.getName());
+        put(fields, "status", criteria.getStatus());
+        put(fields, "productId", criteria.getProductId());
+        put(fields, "startDateFrom", criteria.getStartDateFrom());
+        put(fields, "startDateTo", criteria.getStartDateTo());
+        put(fields, "endDateFrom", criteria.getEndDateFrom());
+        put(fields, "endDateTo", criteria.getEndDateTo());
+        return fingerprint("campaigns-filtered-", "campaign", fields, pageable);
+    }
+
+    public void recordHit(QueryFingerprint fingerprint) {
+        counters(fingerprint.shape())[0].increment();
+    }
+
+    public void recordMiss(QueryFingerprint fingerprint) {
+        counters(fingerprint.shape())[1].increment();
+    }
+
+    /** Hit and miss counts per query shape since startup
+     *
+     * @return Map of shape to its hits and misses
+     */
+    public Map<String, Map<String, Long>> getShapeStats() {
+        return shapeStats.entrySet().stream()
+                .collect(Collectors.toMap(
+                        Map.Entry::getKey,
+                        e -> Map.of("hits", e.getValue()[0].sum(), "misses", e.getValue()[1].sum()),
+                        (a, b) -> a,
+                        TreeMap::new));
+    }
+
+    private QueryFingerprint fingerprint(String keyPrefix, String entity, Map<String, String> fields, Pageable pageable) {
+        String sort = canonicalSort(pageable.getSort());
+        StringJoiner canonical = new StringJoiner("\u001f");
+        canonical.add(entity).add(FORMAT_VERSION);
+        fields.forEach((name, value) -> canonical.add(name + "=" + value));
+        canonical.add("page=" + pageable.getPageNumber())
+                .add("size=" + pageable.getPageSize())
+                .add("sort=" + sort);
+
+        String shape = entity + "[" + String.join(",", fields.keySet()) + "] sort=" + sort;
+        return new QueryFingerprint(keyPrefix + digest(canonical.toString()), shape);
+    }
+
+    private LongAdder[] counters(String shape) {
+        return shapeStats.computeIfAbsent(shape, s -> new LongAdder[]{new LongAdder(), new LongAdder()});
+    }
+
+    private static void put(Map<String, String> fields, String name, Object value) {
+        if (value instanceof LocalDateTime dateTime) {
+            fields.put(name, dateTime.toString());
+        } else if (value instanceof BigDecimal decimal) {
+            fields.put(name, decimal.toPlainString());
+        } else if (value != null) {
+            fields.put(name, value.toString());
+        }
+    }
+
+    private static String normalizeText(String value) {
+        if (value == null) {
+            return null;
+        }
+        // Every text filter is matched case-insensitively
+        String normalized = value.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return normalized.isEmpty() ? null : normalized;
+    }
+
+    private static BigDecimal normalizeDecimal(BigDecimal value) {
+        return value == null ? null : value.stripTrailingZeros();
+    }
+
+    private static String canonicalSort(Sort sort) {
+        if (sort.isUnsorted()) {
+            return "-";
+        }
+        StringJoiner joiner = new StringJoiner(",");
+        sort.forEach(order -> joiner.add(order.getProperty() + ":" + order.getDirection().name()
+                + (order.isIgnoreCase() ? ":ic" : "")));
+        return joiner.toString();
+    }
+
+    private static String digest(String canonical) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
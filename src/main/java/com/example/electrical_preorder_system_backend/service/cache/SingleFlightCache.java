@@ -0,0 +1,226 @@
+package com.example.electrical_preorder_system_backend.service.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache for the catalog reads that stampede after an invalidation. Only one computation per key
+ * runs on a node, and a short Redis lock keeps the other nodes waiting for its result instead of querying too.
+ * While a key is being rebuilt, the stale copy left behind by the tag invalidation is served and refreshed
+ * in the background.
+ */
+@Slf4j
+@Component
+public class SingleFlightCache {
+
+    public static final String STALE_PREFIX = "stale:";
+    private static final String LOCK_PREFIX = "cache-lock:";
+    private static final long POLL_INTERVAL_MS = 50;
+
+    private static final DefaultRedisScript<Long> RELEASE_LOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0",
+            Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final NearCache nearCache;
+    private final ICacheTagService cacheTagService;
+    private final TaskExecutor taskExecutor;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Duration lockTtl;
+    private final long lockWaitMs;
+
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    public SingleFlightCache(RedisTemplate<String, Object> redisTemplate,
+                             StringRedisTemplate stringRedisTemplate,
+                             NearCache nearCache,
+                             ICacheTagService cacheTagService,
+                             @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${cache.stampede.lock-ttl-ms:10000}") long lockTtlMs,
+                             @Value("${cache.stampede.lock-wait-ms:2000}") long lockWaitMs) {
+        this.redisTemplate = redisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.nearCache = nearCache;
+        this.cacheTagService = cacheTagService;
+        this.taskExecutor = taskExecutor;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.lockTtl = Duration.ofMillis(lockTtlMs);
+        this.lockWaitMs = lockWaitMs;
+    }
+
+    /** Return the cached value of a key, computing and caching it at most once across concurrent callers
+     *
+     * @param key Redis key of the entry
+     * @param type Type of the cached value
+     * @param ttl Time to live of the entry
+     * @param loader Computes the value on a miss
+     * @param tags Tags to register the stored entry under, see CacheTags
+     * @return Cached, stale or freshly computed value
+     */
+    public <T> T get(String key, Class<T> type, Duration ttl, Supplier<T> loader, Function<T, Collection<String>> tags) {
+        T value = read(key, type);
+        if (value != null) {
+            return value;
+        }
+        T stale = readRemote(STALE_PREFIX + key, type);
+        if (stale != null) {
+            refreshInBackground(key, type, ttl, loader, tags);
+            return stale;
+        }
+        return loadOnce(key, type, ttl, loader, tags);
+    }
+
+    private <T> void refreshInBackground(String key, Class<T> type, Duration ttl, Supplier<T> loader,
+                                         Function<T, Collection<String>> tags) {
+        if (inFlight.containsKey(key)) {
+            return;
+        }
+        taskExecutor.execute(() -> {
+            try {
+                // The caller's persistence context is gone, lazy associations need a session of their own
+                readOnlyTransaction.execute(status -> loadOnce(key, type, ttl, loader, tags));
+            } catch (Exception e) {
+                log.error("Failed to refresh cache key {}: {}", key, e.getMessage());
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T loadOnce(String key, Class<T> type, Duration ttl, Supplier<T> loader,
+                           Function<T, Collection<String>> tags) {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            try {
+                return (T) running.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        try {
+            T value = loadWithLock(key, type, ttl, loader, tags);
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private <T> T loadWithLock(String key, Class<T> type, Duration ttl, Supplier<T> loader,
+                               Function<T, Collection<String>> tags) {
+        String lockKey = LOCK_PREFIX + key;
+        String token = UUID.randomUUID().toString();
+        boolean locked = tryLock(lockKey, token);
+        if (!locked) {
+            T value = awaitOtherNode(key, type);
+            if (value != null) {
+                return value;
+            }
+            // The other node is too slow or died holding the lock, compute it here as well
+        }
+        try {
+            T value = loader.get();
+            write(key, value, ttl, tags.apply(value));
+            return value;
+        } finally {
+            if (locked) {
+                unlock(lockKey, token);
+            }
+        }
+    }
+
+    private <T> T awaitOtherNode(String key, Class<T> type) {
+        long deadline = System.currentTimeMillis() + lockWaitMs;
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(POLL_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            T value = readRemote(key, type);
+            if (value != null) {
+                nearCache.put(key, value);
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private <T> T read(String key, Class<T> type) {
+        Object value = nearCache.get(key);
+        if (type.isInstance(value)) {
+            return type.cast(value);
+        }
+        T remote = readRemote(key, type);
+        nearCache.put(key, remote);
+        return remote;
+    }
+
+    private <T> T readRemote(String key, Class<T> type) {
+        try {
+            Object value = redisTemplate.opsForValue().get(key);
+            return type.isInstance(value) ? type.cast(value) : null;
+        } catch (Exception e) {
+            log.error("Error reading cache key {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void write(String key, Object value, Duration ttl, Collection<String> tags) {
+        if (value == null) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().set(key, value, ttl);
+            nearCache.put(key, value);
+            cacheTagService.tag(key, tags);
+        } catch (Exception e) {
+            log.error("Error writing cache key {}: {}", key, e.getMessage());
+        }
+    }
+
+    private boolean tryLock(String lockKey, String token) {
+        try {
+            return Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(lockKey, token, lockTtl));
+        } catch (Exception e) {
+            // Without Redis there is nothing to coordinate with, the local single-flight still applies
+            return true;
+        }
+    }
+
+    private void unlock(String lockKey, String token) {
+        try {
+            stringRedisTemplate.execute(RELEASE_LOCK_SCRIPT, List.of(lockKey), token);
+        } catch (Exception e) {
+            log.debug("Failed to release cache lock {}: {}", lockKey, e.getMessage());
+        }
+    }
+}
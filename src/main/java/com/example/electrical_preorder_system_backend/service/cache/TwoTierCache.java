@@ -0,0 +1,91 @@
+package com.example.electrical_preorder_system_backend.service.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Spring cache that answers from the near cache first and falls back to the Redis cache behind it.
+ * Evictions go through the near cache, so they reach every node.
+ */
+public class TwoTierCache implements Cache {
+
+    private final Cache delegate;
+    private final NearCache nearCache;
+
+    public TwoTierCache(Cache delegate, NearCache nearCache) {
+        this.delegate = delegate;
+        this.nearCache = nearCache;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String redisKey = redisKey(key);
+        Object value = nearCache.get(redisKey);
+        if (value != null) {
+            return new SimpleValueWrapper(value);
+        }
+        ValueWrapper wrapper = delegate.get(key);
+        if (wrapper != null) {
+            nearCache.put(redisKey, wrapper.get());
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T value = delegate.get(key, valueLoader);
+        nearCache.put(redisKey(key), value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+        nearCache.put(redisKey(key), value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+        nearCache.invalidate(List.of(redisKey(key)));
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        nearCache.invalidateAll();
+    }
+
+    private String redisKey(Object key) {
+        return CacheTags.cacheKey(getName(), String.valueOf(key));
+    }
+}
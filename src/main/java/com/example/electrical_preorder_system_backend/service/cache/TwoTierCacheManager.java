@@ -0,0 +1,40 @@
+package com.example.electrical_preorder_system_backend.service.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache manager that puts a near cache in front of the named caches of another manager
+ * and hands out the remaining caches unchanged.
+ */
+public class TwoTierCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+    private final NearCache nearCache;
+    private final Set<String> nearCacheNames;
+    private final ConcurrentHashMap<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public TwoTierCacheManager(CacheManager delegate, NearCache nearCache, Set<String> nearCacheNames) {
+        this.delegate = delegate;
+        this.nearCache = nearCache;
+        this.nearCacheNames = nearCacheNames;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = delegate.getCache(name);
+        if (cache == null || !nearCacheNames.contains(name)) {
+            return cache;
+        }
+        return caches.computeIfAbsent(name, n -> new TwoTierCache(cache, nearCache));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+}
@@ -0,0 +1,277 @@
+package com.example.electrical_preorder_system_backend.service.campaign;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the campaign_metrics and campaign_stage_metrics summary rows up to date. Order and payment
+ * changes report their effect as deltas, which are buffered per campaign and per stage once the
+ * change commits and added to the summary rows in one batch per flush interval, so a burst of orders
+ * on one campaign does not queue up on its summary row. A flush is applied in one transaction, so when it
+ * fails none of its deltas were added and all of them are buffered again for the next run.
+ */
+@Slf4j
+@Component
+public class CampaignMetricsAggregator {
+
+    private static final String CAMPAIGN_TOTALS_SQL =
+            "SELECT c.id, " +
+            "COALESCE(SUM(o.quantity), 0), " +
+            "COUNT(o.id), " +
+            "COUNT(o.id) FILTER (WHERE o.status = 'PENDING'), " +
+            "COALESCE(SUM(o.quantity) FILTER (WHERE paid.order_id IS NOT NULL), 0), " +
+            "COUNT(paid.order_id), " +
+            "COALESCE(SUM(o.total_amount) FILTER (WHERE paid.order_id IS NOT NULL), 0), " +
+            "CAST(? AS timestamp) " +
+            "FROM campaign c " +
+            "LEFT JOIN \"order\" o ON o.campaign_id = c.id AND o.is_deleted = false " +
+            "LEFT JOIN (SELECT DISTINCT op.order_id FROM order_payment op " +
+            "JOIN payment p ON p.id = op.payment_id WHERE p.status = 'PAID') paid ON paid.order_id = o.id ";
+
+    private static final String STAGE_TOTALS_SQL =
+            "WITH paid AS (" +
+            "SELECT o.id, o.campaign_id, o.quantity, o.total_amount, MIN(p.date) AS paid_at " +
+            "FROM \"order\" o JOIN order_payment op ON op.order_id = o.id " +
+            "JOIN payment p ON p.id = op.payment_id AND p.status = 'PAID' " +
+            "WHERE o.is_deleted = false GROUP BY o.id, o.campaign_id, o.quantity, o.total_amount), " +
+            "credited AS (" +
+            "SELECT cs.id AS stage_id, COALESCE(SUM(paid.quantity), 0) AS quantity, COUNT(paid.id) AS order_count, " +
+            "COALESCE(SUM(paid.total_amount), 0) AS revenue " +
+            "FROM campaign_stage cs LEFT JOIN paid ON paid.campaign_id = cs.campaign_id " +
+            "AND paid.paid_at >= cs.start_date AND paid.paid_at < cs.end_date " +
+            "GROUP BY cs.id) " +
+            "INSERT INTO campaign_stage_metrics (campaign_stage_id, campaign_id, paid_quantity, paid_order_count, " +
+            "revenue, updated_at) " +
+            "SELECT cs.id, cs.campaign_id, cs.quantity_sold, " +
+            "CASE WHEN cr.quantity = cs.quantity_sold THEN cr.order_count END, " +
+            "CASE WHEN cr.quantity = cs.quantity_sold THEN cr.revenue END, CAST(? AS timestamp) " +
+            "FROM campaign_stage cs JOIN credited cr ON cr.stage_id = cs.id " +
+            "WHERE NOT EXISTS (SELECT 1 FROM campaign_stage_metrics m WHERE m.campaign_stage_id = cs.id) " +
+            "ON CONFLICT (campaign_stage_id) DO NOTHING";
+
+    private static final String INSERT_CAMPAIGN_METRICS =
+            "INSERT INTO campaign_metrics (campaign_id, ordered_quantity, order_count, pending_count, " +
+            "paid_quantity, paid_order_count, revenue, updated_at) ";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ConcurrentHashMap<UUID, CampaignDelta> campaignDeltas = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, StageDelta> stageDeltas = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushing = new AtomicBoolean();
+
+    private record CampaignDelta(long orderedQuantity, long orderCount, long pendingCount,
+                                 long paidQuantity, long paidOrderCount, BigDecimal revenue) {
+        CampaignDelta plus(CampaignDelta other) {
+            return new CampaignDelta(orderedQuantity + other.orderedQuantity, orderCount + other.orderCount,
+                    pendingCount + other.pendingCount, paidQuantity + other.paidQuantity,
+                    paidOrderCount + other.paidOrderCount, revenue.add(other.revenue));
+        }
+    }
+
+    private record StageDelta(UUID campaignId, long paidQuantity, long paidOrderCount, BigDecimal revenue) {
+        StageDelta plus(StageDelta other) {
+            return new StageDelta(campaignId, paidQuantity + other.paidQuantity,
+                    paidOrderCount + other.paidOrderCount, revenue.add(other.revenue));
+        }
+    }
+
+    public CampaignMetricsAggregator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public void orderPlaced(UUID campaignId, int quantity) {
+        record(campaignId, new CampaignDelta(quantity, 1, 1, 0, 0, BigDecimal.ZERO));
+    }
+
+    public void orderQuantityChanged(UUID campaignId, int delta) {
+        if (delta != 0) {
+            record(campaignId, new CampaignDelta(delta, 0, 0, 0, 0, BigDecimal.ZERO));
+        }
+    }
+
+    public void pendingOrderRemoved(UUID campaignId, int quantity) {
+        record(campaignId, new CampaignDelta(-quantity, -1, -1, 0, 0, BigDecimal.ZERO));
+    }
+
+    public void pendingOrderConfirmed(UUID campaignId) {
+        record(campaignId, new CampaignDelta(0, 0, -1, 0, 0, BigDecimal.ZERO));
+    }
+
+    public void orderPaid(UUID campaignId, int quantity, BigDecimal amount) {
+        record(campaignId, new CampaignDelta(0, 0, 0, quantity, 1, amount));
+    }
+
+    /** Credit paid orders to the stage that was active when they were paid
+     *
+     * @param stageId Campaign stage id
+     * @param campaignId Campaign of the stage
+     * @param quantity Paid quantity
+     * @param orderCount Number of paid orders
+     * @param amount Paid amount
+     */
+    public void stagePaid(UUID stageId, UUID campaignId, int quantity, int orderCount, BigDecimal amount) {
+        afterCommit(() -> stageDeltas.merge(stageId, new StageDelta(campaignId, quantity, orderCount, amount), StageDelta::plus));
+    }
+
+    /** Create the empty summary row of a new campaign, in the caller's transaction
+     *
+     * @param campaignId Campaign id
+     */
+    public void initCampaign(UUID campaignId) {
+        jdbcTemplate.update(INSERT_CAMPAIGN_METRICS + "VALUES (?, 0, 0, 0, 0, 0, 0, ?) ON CONFLICT (campaign_id) DO NOTHING",
+                campaignId, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    /** Create the empty summary row of a new stage, in the caller's transaction
+     *
+     * @param stageId Campaign stage id
+     * @param campaignId Campaign of the stage
+     */
+    public void initStage(UUID stageId, UUID campaignId) {
+        jdbcTemplate.update("INSERT INTO campaign_stage_metrics (campaign_stage_id, campaign_id, paid_quantity, " +
+                        "paid_order_count, revenue, updated_at) VALUES (?, ?, 0, 0, 0, ?) " +
+                        "ON CONFLICT (campaign_stage_id) DO NOTHING",
+                stageId, campaignId, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    /**
+     * Create the summary rows missing for campaigns and stages that existed before the metrics store.
+     * Campaign totals are computed from their orders. Each paid order is credited to the stage of its campaign
+     * whose dates contain the payment date. When the orders credited that way do not add up to the quantity
+     * the stage recorded as sold, its order count and revenue are unknown and left null.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            int campaigns = jdbcTemplate.update(INSERT_CAMPAIGN_METRICS + CAMPAIGN_TOTALS_SQL +
+                    "WHERE NOT EXISTS (SELECT 1 FROM campaign_metrics m WHERE m.campaign_id = c.id) " +
+                    "GROUP BY c.id ON CONFLICT (campaign_id) DO NOTHING", now);
+            int stages = jdbcTemplate.update(STAGE_TOTALS_SQL, now);
+            if (campaigns > 0 || stages > 0) {
+                log.info("Backfilled metrics of {} campaigns and {} campaign stages", campaigns, stages);
+            }
+        } catch (Exception e) {
+            log.error("Failed to backfill campaign metrics: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${campaign.metrics.flush-interval-ms:500}")
+    public void flush() {
+        if ((campaignDeltas.isEmpty() && stageDeltas.isEmpty()) || !flushing.compareAndSet(false, true)) {
+            return;
+        }
+        Map<UUID, CampaignDelta> campaigns = drain(campaignDeltas);
+        Map<UUID, StageDelta> stages = drain(stageDeltas);
+        try {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            transactionTemplate.executeWithoutResult(status -> {
+                flushCampaigns(campaigns, now);
+                flushStages(stages, now);
+            });
+            log.debug("Flushed metrics of {} campaigns and {} campaign stages", campaigns.size(), stages.size());
+        } catch (Exception e) {
+            log.error("Failed to flush campaign metrics, retrying on next run: {}", e.getMessage());
+            campaigns.forEach((campaignId, delta) -> campaignDeltas.merge(campaignId, delta, CampaignDelta::plus));
+            stages.forEach((stageId, delta) -> stageDeltas.merge(stageId, delta, StageDelta::plus));
+        } finally {
+            flushing.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void flushCampaigns(Map<UUID, CampaignDelta> deltas, Timestamp now) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<UUID> campaignIds = new ArrayList<>(deltas.keySet());
+        List<Object[]> rows = new ArrayList<>(campaignIds.size());
+        for (UUID campaignId : campaignIds) {
+            CampaignDelta delta = deltas.get(campaignId);
+            rows.add(new Object[]{delta.orderedQuantity(), delta.orderCount(), delta.pendingCount(),
+                    delta.paidQuantity(), delta.paidOrderCount(), delta.revenue(), now, campaignId});
+        }
+        int[] updated = jdbcTemplate.batchUpdate("UPDATE campaign_metrics SET " +
+                "ordered_quantity = ordered_quantity + ?, order_count = order_count + ?, " +
+                "pending_count = pending_count + ?, paid_quantity = paid_quantity + ?, " +
+                "paid_order_count = paid_order_count + ?, revenue = revenue + ?, updated_at = ? " +
+                "WHERE campaign_id = ?", rows);
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                // No summary row yet, computing it from the orders already includes the committed delta
+                jdbcTemplate.update(INSERT_CAMPAIGN_METRICS + CAMPAIGN_TOTALS_SQL +
+                        "WHERE c.id = ? GROUP BY c.id ON CONFLICT (campaign_id) DO NOTHING", now, campaignIds.get(i));
+            }
+        }
+    }
+
+    private void flushStages(Map<UUID, StageDelta> deltas, Timestamp now) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((stageId, delta) -> rows.add(new Object[]{stageId, delta.campaignId(), delta.paidQuantity(),
+                delta.paidOrderCount(), delta.revenue(), now}));
+        jdbcTemplate.batchUpdate("INSERT INTO campaign_stage_metrics (campaign_stage_id, campaign_id, " +
+                "paid_quantity, paid_order_count, revenue, updated_at) VALUES (?, ?, ?, ?, ?, ?) " +
+                "ON CONFLICT (campaign_stage_id) DO UPDATE SET " +
+                "paid_quantity = campaign_stage_metrics.paid_quantity + EXCLUDED.paid_quantity, " +
+                "paid_order_count = campaign_stage_metrics.paid_order_count + EXCLUDED.paid_order_count, " +
+                "revenue = campaign_stage_metrics.revenue + EXCLUDED.revenue, " +
+                "updated_at = EXCLUDED.updated_at", rows);
+    }
+
+    private void record(UUID campaignId, CampaignDelta delta) {
+        afterCommit(() -> campaignDeltas.merge(campaignId, delta, CampaignDelta::plus));
+    }
+
+    private void afterCommit(Runnable buffer) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    buffer.run();
+                }
+            });
+        } else {
+            buffer.run();
+        }
+    }
+
+    private static <V> Map<UUID, V> drain(ConcurrentHashMap<UUID, V> pending) {
+        Map<UUID, V> drained = new HashMap<>();
+        for (UUID key : pending.keySet()) {
+            V value = pending.remove(key);
+            if (value != null) {
+                drained.put(key, value);
+            }
+        }
+        return drained;
+    }
+}
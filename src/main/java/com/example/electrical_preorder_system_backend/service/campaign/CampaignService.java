@@ -5,33 +5,54 @@ import com.example.electrical_preorder_system_backend.dto.filter.CampaignFilterC
 import com.example.electrical_preorder_system_backend.dto.request.campaign.CreateCampaignRequest;
 import com.example.electrical_preorder_system_backend.dto.request.campaign.UpdateCampaignRequest;
 import com.example.electrical_preorder_system_backend.dto.response.campaign.CampaignDTO;
+import com.example.electrical_preorder_system_backend.dto.response.campaign.CampaignMetricsDTO;
+import com.example.electrical_preorder_system_backend.dto.response.campaign_stage.CampaignStageMetricsDTO;
 import com.example.electrical_preorder_system_backend.entity.Campaign;
+import com.example.electrical_preorder_system_backend.entity.CampaignMetrics;
+import com.example.electrical_preorder_system_backend.entity.CampaignStage;
+import com.example.electrical_preorder_system_backend.entity.CampaignStageMetrics;
 import com.example.electrical_preorder_system_backend.entity.Product;
 import com.example.electrical_preorder_system_backend.enums.CampaignStatus;
 import com.example.electrical_preorder_system_backend.exception.AlreadyExistsException;
 import com.example.electrical_preorder_system_backend.exception.CampaignStatusException;
 import com.example.electrical_preorder_system_backend.exception.ResourceNotFoundException;
 import com.example.electrical_preorder_system_backend.mapper.CampaignMapper;
+import com.example.electrical_preorder_system_backend.repository.CampaignMetricsRepository;
 import com.example.electrical_preorder_system_backend.repository.CampaignRepository;
+import com.example.electrical_preorder_system_backend.repository.CampaignStageMetricsRepository;
+import com.example.electrical_preorder_system_backend.repository.CampaignStageRepository;
 import com.example.electrical_preorder_system_backend.repository.OrderRepository;
 import com.example.electrical_preorder_system_backend.repository.ProductRepository;
 import com.example.electrical_preorder_system_backend.repository.specification.CampaignSpecifications;
+import com.example.electrical_preorder_system_backend.service.cache.CacheTags;
+import com.example.electrical_preorder_system_backend.service.cache.ICacheTagService;
+import com.example.electrical_preorder_system_backend.service.cache.QueryFingerprinter;
+import com.example.electrical_preorder_system_backend.service.cache.QueryFingerprinter.QueryFingerprint;
+import com.example.electrical_preorder_system_backend.service.cache.SingleFlightCache;
+import com.example.electrical_preorder_system_backend.service.retry.RetryExecutor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Slf4j
 @Service
@@ -41,25 +62,50 @@ public class CampaignService implements ICampaignService {
     private final CampaignRepository campaignRepository;
     private final ProductRepository productRepository;
     private final OrderRepository orderRepository;
-    private final RedisTemplate<String, Object> redisTemplate;
+    private final RetryExecutor retryExecutor;
+    private final ICacheTagService cacheTagService;
+    private final QueryFingerprinter queryFingerprinter;
+    private final SingleFlightCache singleFlightCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final CampaignStageRepository campaignStageRepository;
+    private final CampaignMetricsRepository campaignMetricsRepository;
+    private final CampaignStageMetricsRepository campaignStageMetricsRepository;
+    private final CampaignMetricsAggregator campaignMetricsAggregator;
+
+    private static final Duration CAMPAIGN_PAGE_TTL = Duration.ofMinutes(60);
+
+    @Value("${campaign.transition.mode:bulk}")
+    private String transitionMode;
 
     @Override
     public Page<CampaignDTO> getFilteredCampaigns(CampaignFilterCriteria criteria, Pageable pageable) {
         log.info("Searching campaigns with filters: name={}, status={}, productId={}",
                 criteria.getName(), criteria.getStatus(), criteria.getProductId());
 
-        String cacheKey = generateCacheKey(criteria, pageable);
-
-        CachedCampaignPage cachedResult = getCachedCampaignPage(cacheKey);
-        if (cachedResult != null) {
-            log.info("Cache hit for campaigns with key: {}", cacheKey);
-            return cachedResult.toPage();
+        CampaignFilterCriteria normalized = queryFingerprinter.normalize(criteria);
+        QueryFingerprint fingerprint = queryFingerprinter.fingerprint(normalized, pageable);
+
+        AtomicBoolean loaded = new AtomicBoolean();
+        CachedCampaignPage page = singleFlightCache.get(fingerprint.key(), CachedCampaignPage.class, CAMPAIGN_PAGE_TTL,
+                () -> {
+                    loaded.set(true);
+                    log.info("Cache miss for campaigns, fetching from database");
+                    return CachedCampaignPage.from(findCampaigns(normalized, pageable));
+                },
+                this::campaignPageTags);
+        if (loaded.get()) {
+            queryFingerprinter.recordMiss(fingerprint);
+        } else {
+            queryFingerprinter.recordHit(fingerprint);
         }
+        return page.toPage();
+    }
 
-        log.info("Cache miss for campaigns, fetching from database");
+    private Page<CampaignDTO> findCampaigns(CampaignFilterCriteria criteria, Pageable pageable) {
         Specification<Campaign> spec = Specification.where(CampaignSpecifications.isNotDeleted());
 
-        if (criteria.getName() != null && !criteria.getName().trim().isEmpty()) {
+        if (criteria.getName() != null) {
             spec = spec.and(CampaignSpecifications.nameLike(criteria.getName()));
         }
 
@@ -87,48 +133,20 @@ public class CampaignService implements ICampaignService {
             spec = spec.and(CampaignSpecifications.endDateBeforeOrEqual(criteria.getEndDateTo()));
         }
 
-        Page<CampaignDTO> resultPage = campaignRepository.findAll(spec, pageable)
+        return campaignRepository.findAll(spec, pageable)
                 .map(CampaignMapper::toCampaignDTO);
-
-        cacheCampaignPage(cacheKey, resultPage);
-
-        return resultPage;
     }
 
-    private String generateCacheKey(CampaignFilterCriteria criteria, Pageable pageable) {
-        return "campaigns-filtered-" +
-                (criteria.getName() != null ? criteria.getName() : "") + "-" +
-                (criteria.getStatus() != null ? criteria.getStatus() : "") + "-" +
-                (criteria.getProductId() != null ? criteria.getProductId() : "") + "-" +
-                (criteria.getStartDateFrom() != null ? criteria.getStartDateFrom() : "") + "-" +
-                (criteria.getStartDateTo() != null ? criteria.getStartDateTo() : "") + "-" +
-                (criteria.getEndDateFrom() != null ? criteria.getEndDateFrom() : "") + "-" +
-                (criteria.getEndDateTo() != null ? criteria.getEndDateTo() : "") + "-" +
-                pageable.getPageNumber() + "-" +
-                pageable.getPageSize() + "-" +
-                pageable.getSort();
-    }
-
-    private CachedCampaignPage getCachedCampaignPage(String key) {
-        try {
-            Object value = redisTemplate.opsForValue().get(key);
-            if (value instanceof CachedCampaignPage) {
-                return (CachedCampaignPage) value;
+    private List<String> campaignPageTags(CachedCampaignPage page) {
+        List<String> tags = new ArrayList<>();
+        tags.add(CacheTags.CAMPAIGN_LIST);
+        page.getContent().forEach(campaign -> {
+            tags.add(CacheTags.campaign(campaign.getId()));
+            if (campaign.getProduct() != null) {
+                tags.add(CacheTags.product(campaign.getProduct().getId()));
             }
-        } catch (Exception e) {
-            log.error("Error retrieving cached campaign page: {}", e.getMessage());
-        }
-        return null;
-    }
-
-    private void cacheCampaignPage(String key, Page<CampaignDTO> page) {
-        try {
-            CachedCampaignPage cachedPage = CachedCampaignPage.from(page);
-            redisTemplate.opsForValue().set(key, cachedPage, 60, TimeUnit.MINUTES);
-            log.info("Cached campaign page with key: {}", key);
-        } catch (Exception e) {
-            log.error("Error caching campaign page: {}", e.getMessage());
-        }
+        });
+        return tags;
     }
 
     @Override
@@ -139,32 +157,69 @@ public class CampaignService implements ICampaignService {
                 .filter(c -> !c.isDeleted())
                 .orElseThrow(() -> new ResourceNotFoundException("Campaign not found with id: " + id));
 
+        List<String> tags = new ArrayList<>();
+        tags.add(CacheTags.campaign(id));
+        Product product = campaign.getProduct();
+        tags.add(CacheTags.product(product.getId()));
+        if (product.getCategory() != null) {
+            tags.add(CacheTags.category(product.getCategory().getId()));
+        }
+        cacheTagService.tag(CacheTags.cacheKey("campaigns", "campaign-" + id), tags);
         return CampaignMapper.toCampaignDTO(campaign);
     }
 
-//    @Override
-//    public Map<String, Object> getCampaignPerformanceMetrics(UUID campaignId) {
-//        Campaign campaign = getCampaignById(campaignId);
-//        List<CampaignStage> stages = getCampaignStagesByCampaignId(campaignId);
-//
-//        int totalSold = stages.stream().mapToInt(CampaignStage::getQuantitySold).sum();
-//        double progressPercentage = campaign.getMaxQuantity() > 0 ?
-//                (totalSold * 100.0 / campaign.getMaxQuantity()) : 0;
-//
-//        Map<String, Object> metrics = new HashMap<>();
-//        metrics.put("totalSold", totalSold);
-//        metrics.put("totalTarget", campaign.getMaxQuantity());
-//        metrics.put("progressPercentage", progressPercentage);
-//        metrics.put("activeStages", stages.stream()
-//                .filter(s -> s.getStatus() == CampaignStageStatus.ACTIVE)
-//                .count());
-//
-//        return metrics;
-//    }
+    @Override
+    public CampaignMetricsDTO getCampaignMetrics(UUID id) {
+        Campaign campaign = campaignRepository.findById(id)
+                .filter(c -> !c.isDeleted())
+                .orElseThrow(() -> new ResourceNotFoundException("Campaign not found with id: " + id));
+        CampaignMetrics metrics = campaignMetricsRepository.findById(id).orElseGet(() -> {
+            CampaignMetrics empty = new CampaignMetrics();
+            empty.setCampaignId(id);
+            return empty;
+        });
+        Map<UUID, CampaignStageMetrics> stageMetrics = campaignStageMetricsRepository.findAllByCampaignId(id).stream()
+                .collect(Collectors.toMap(CampaignStageMetrics::getCampaignStageId, Function.identity()));
+
+        CampaignMetricsDTO dto = new CampaignMetricsDTO();
+        dto.setCampaignId(id);
+        dto.setOrderedQuantity(metrics.getOrderedQuantity());
+        dto.setOrderCount(metrics.getOrderCount());
+        dto.setPendingCount(metrics.getPendingCount());
+        dto.setPaidQuantity(metrics.getPaidQuantity());
+        dto.setPaidOrderCount(metrics.getPaidOrderCount());
+        dto.setRevenue(metrics.getRevenue());
+        dto.setTargetQuantity(campaign.getMaxQuantity());
+        dto.setProgressPercentage(progress(metrics.getPaidQuantity(), campaign.getMaxQuantity()));
+        dto.setUpdatedAt(metrics.getUpdatedAt());
+        for (CampaignStage stage : campaignStageRepository.findStageByCampaignIdAndIsDeletedFalse(id)) {
+            CampaignStageMetrics stageTotals = stageMetrics.get(stage.getId());
+            CampaignStageMetricsDTO stageDto = new CampaignStageMetricsDTO();
+            stageDto.setStageId(stage.getId());
+            stageDto.setName(stage.getName());
+            stageDto.setStatus(stage.getStatus());
+            stageDto.setTargetQuantity(stage.getTargetQuantity());
+            if (stageTotals != null) {
+                stageDto.setPaidQuantity(stageTotals.getPaidQuantity());
+                stageDto.setPaidOrderCount(stageTotals.getPaidOrderCount());
+                stageDto.setRevenue(stageTotals.getRevenue());
+                stageDto.setUpdatedAt(stageTotals.getUpdatedAt());
+            } else {
+                stageDto.setPaidOrderCount(0L);
+                stageDto.setRevenue(BigDecimal.ZERO);
+            }
+            stageDto.setProgressPercentage(progress(stageDto.getPaidQuantity(), stage.getTargetQuantity()));
+            dto.getStages().add(stageDto);
+        }
+        return dto;
+    }
+
+    private static double progress(long quantity, Integer target) {
+        return target != null && target > 0 ? quantity * 100.0 / target : 0;
+    }
 
     @Override
     @Transactional
-    @CacheEvict(value = {"campaigns", "products"}, allEntries = true)
     public Campaign createCampaign(CreateCampaignRequest request) {
         String campaignName = request.getName().trim();
         Campaign oldCampaign = campaignRepository.findByName(campaignName);
@@ -190,18 +245,20 @@ public class CampaignService implements ICampaignService {
         newCampaign.setProduct(product);
 
         newCampaign = campaignRepository.save(newCampaign);
+        campaignMetricsAggregator.initCampaign(newCampaign.getId());
+        eventPublisher.publishEvent(CampaignTimelineChangedEvent.ofCampaign(newCampaign.getId()));
         log.info("Campaign created with id {}", newCampaign.getId());
-        clearCampaignCache();
+        cacheTagService.invalidate(List.of(CacheTags.CAMPAIGN_LIST, CacheTags.product(product.getId())));
         return newCampaign;
     }
 
     @Override
     @Transactional
-    @CacheEvict(value = {"campaigns", "products"}, allEntries = true)
     public Campaign updateCampaign(UUID id, UpdateCampaignRequest request) {
         Campaign campaign = campaignRepository.findById(id)
                 .filter(c -> !c.isDeleted())
                 .orElseThrow(() -> new ResourceNotFoundException("Campaign not found with id: " + id));
+        UUID oldProductId = campaign.getProduct().getId();
         String campaignName = request.getName().trim();
         if (!campaign.getName().equalsIgnoreCase(campaignName)) {
             Campaign oldCampaign = campaignRepository.findByName(campaignName);
@@ -243,14 +300,18 @@ public class CampaignService implements ICampaignService {
         }
 
         campaign = campaignRepository.save(campaign);
+        eventPublisher.publishEvent(CampaignTimelineChangedEvent.ofCampaign(campaign.getId()));
         log.info("Campaign updated with id {}", campaign.getId());
-        clearCampaignCache();
+        cacheTagService.invalidate(List.of(
+                CacheTags.campaign(id),
+                CacheTags.CAMPAIGN_LIST,
+                CacheTags.product(oldProductId),
+                CacheTags.product(campaign.getProduct().getId())));
         return campaign;
     }
 
     @Override
     @Transactional
-    @CacheEvict(value = {"campaigns", "products"}, allEntries = true)
     public void deleteCampaign(UUID id) {
         Campaign campaign = campaignRepository.findById(id)
                 .filter(c -> !c.isDeleted())
@@ -264,7 +325,11 @@ public class CampaignService implements ICampaignService {
 
         campaign.setDeleted(true);
         campaignRepository.save(campaign);
-        clearCampaignCache();
+        eventPublisher.publishEvent(CampaignTimelineChangedEvent.ofCampaign(id));
+        cacheTagService.invalidate(List.of(
+                CacheTags.campaign(id),
+                CacheTags.CAMPAIGN_LIST,
+                CacheTags.product(campaign.getProduct().getId())));
         log.info("Campaign marked as deleted with id {}", id);
     }
 
@@ -280,26 +345,64 @@ public class CampaignService implements ICampaignService {
     }
 
     @Override
-    @Transactional
-    @CacheEvict(value = {"campaigns", "products"}, allEntries = true)
     public void updateCampaignStatuses() {
-        List<Campaign> campaigns = campaignRepository.findActiveCampaigns();
+        if (!"bulk".equalsIgnoreCase(transitionMode)) {
+            campaignRepository.findIdsWithStaleStatus(LocalDateTime.now()).forEach(this::refreshCampaignStatus);
+            return;
+        }
+        List<UUID> changedIds = retryExecutor.executeInTransaction(
+                "update campaign statuses", this::applyStatusTransitions);
+        if (!changedIds.isEmpty()) {
+            List<String> tags = new ArrayList<>();
+            tags.add(CacheTags.CAMPAIGN_LIST);
+            changedIds.forEach(id -> tags.add(CacheTags.campaign(id)));
+            cacheTagService.invalidate(tags);
+            log.info("Updated status of {} campaigns", changedIds.size());
+        }
+    }
+
+    private List<UUID> applyStatusTransitions() {
         LocalDateTime now = LocalDateTime.now();
-        for (Campaign campaign : campaigns) {
-            CampaignStatus currentStatus = campaign.getStatus();
-            if (campaign.getStartDate().isAfter(now)) {
-                campaign.setStatus(CampaignStatus.SCHEDULED);
-            } else if (!campaign.getStartDate().isAfter(now) && campaign.getEndDate().isAfter(now)) {
-                campaign.setStatus(CampaignStatus.ACTIVE);
-            } else if (campaign.getEndDate().isBefore(now)) {
-                campaign.setStatus(CampaignStatus.COMPLETED);
+        List<UUID> changedIds = new ArrayList<>();
+        changedIds.addAll(transitionStatus(CampaignStatus.SCHEDULED, "start_date > :now", now));
+        changedIds.addAll(transitionStatus(CampaignStatus.ACTIVE, "start_date <= :now AND end_date >= :now", now));
+        changedIds.addAll(transitionStatus(CampaignStatus.COMPLETED, "end_date < :now", now));
+        return changedIds;
+    }
+
+    private List<UUID> transitionStatus(CampaignStatus target, String dateCondition, LocalDateTime now) {
+        String sql = "UPDATE campaign SET status = :status, version = version + 1, updated_at = :now " +
+                "WHERE is_deleted = false AND status <> :status AND status <> 'CANCELLED' AND " + dateCondition + " " +
+                "RETURNING id";
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("status", target.name())
+                .addValue("now", now);
+        return jdbcTemplate.query(sql, params, (rs, rowNum) -> rs.getObject(1, UUID.class));
+    }
+
+    @Override
+    public boolean refreshCampaignStatus(UUID id) {
+        boolean changed = retryExecutor.executeInTransaction("refresh campaign status", () -> {
+            Campaign campaign = campaignRepository.findById(id)
+                    .filter(c -> !c.isDeleted() && c.getStatus() != CampaignStatus.CANCELLED)
+                    .orElse(null);
+            if (campaign == null) {
+                return false;
             }
-            if (!currentStatus.equals(campaign.getStatus())) {
-                log.info("Campaign {} status updated from {} to {}", campaign.getId(), currentStatus, campaign.getStatus());
+            CampaignStatus currentStatus = campaign.getStatus();
+            CampaignStatus newStatus = determineCampaignStatus(campaign.getStartDate(), campaign.getEndDate());
+            if (newStatus == currentStatus) {
+                return false;
             }
+            campaign.setStatus(newStatus);
+            campaignRepository.save(campaign);
+            log.info("Campaign {} status updated from {} to {}", id, currentStatus, newStatus);
+            return true;
+        });
+        if (changed) {
+            cacheTagService.invalidate(List.of(CacheTags.campaign(id), CacheTags.CAMPAIGN_LIST));
         }
-        campaignRepository.saveAll(campaigns);
-        clearCampaignCache();
+        return changed;
     }
 
     @Override
@@ -310,12 +413,6 @@ public class CampaignService implements ICampaignService {
         return CampaignMapper.toCampaignDTO(campaign);
     }
 
-    @Override
-    @CacheEvict(value = "campaigns", allEntries = true)
-    public void clearCampaignCache() {
-        log.info("Cleared campaign cache");
-    }
-
     private void validateCampaignDates(LocalDateTime startDate, LocalDateTime endDate) {
         LocalDateTime now = LocalDateTime.now();
         if (startDate.isBefore(now)) {
@@ -0,0 +1,26 @@
+package com.example.electrical_preorder_system_backend.service.campaign;
+
+import java.util.UUID;
+
+/**
+ * Published when the dates or the existence of a campaign or campaign stage change,
+ * so its status transitions can be rescheduled once the change is committed.
+ *
+ * @param target  whether id refers to a campaign or a campaign stage
+ * @param id      campaign or campaign stage id
+ */
+public record CampaignTimelineChangedEvent(Target target, UUID id) {
+
+    public enum Target {
+        CAMPAIGN,
+        STAGE
+    }
+
+    public static CampaignTimelineChangedEvent ofCampaign(UUID campaignId) {
+        return new CampaignTimelineChangedEvent(Target.CAMPAIGN, campaignId);
+    }
+
+    public static CampaignTimelineChangedEvent ofStage(UUID stageId) {
+        return new CampaignTimelineChangedEvent(Target.STAGE, stageId);
+    }
+}
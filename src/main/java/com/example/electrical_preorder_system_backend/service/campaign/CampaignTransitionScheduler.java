@@ -0,0 +1,156 @@
+package com.example.electrical_preorder_system_backend.service.campaign;
+
+import com.example.electrical_preorder_system_backend.entity.Campaign;
+import com.example.electrical_preorder_system_backend.entity.CampaignStage;
+import com.example.electrical_preorder_system_backend.enums.CampaignStatus;
+import com.example.electrical_preorder_system_backend.repository.CampaignRepository;
+import com.example.electrical_preorder_system_backend.repository.CampaignStageRepository;
+import com.example.electrical_preorder_system_backend.service.campaign_stage.ICampaignStageService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.Predicate;
+
+/**
+ * Fires campaign and stage status transitions at their start and end dates instead of scanning
+ * every row each minute. Only boundaries inside the lookahead horizon hold a timer; the horizon is
+ * reloaded with two indexed range queries on startup and on a fixed delay, which also catches up
+ * rows whose status went stale while no node was running.
+ */
+@Slf4j
+@Component
+public class CampaignTransitionScheduler {
+
+    private final ICampaignService campaignService;
+    private final ICampaignStageService campaignStageService;
+    private final CampaignRepository campaignRepository;
+    private final CampaignStageRepository campaignStageRepository;
+    private final Duration horizon;
+
+    private final ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+    private final ConcurrentHashMap<String, ScheduledFuture<?>> timers = new ConcurrentHashMap<>();
+
+    public CampaignTransitionScheduler(ICampaignService campaignService,
+                                       ICampaignStageService campaignStageService,
+                                       CampaignRepository campaignRepository,
+                                       CampaignStageRepository campaignStageRepository,
+                                       @Value("${campaign.transition.horizon-minutes:120}") long horizonMinutes) {
+        this.campaignService = campaignService;
+        this.campaignStageService = campaignStageService;
+        this.campaignRepository = campaignRepository;
+        this.campaignStageRepository = campaignStageRepository;
+        this.horizon = Duration.ofMinutes(horizonMinutes);
+        taskScheduler.setPoolSize(2);
+        taskScheduler.setThreadNamePrefix("campaign-transition-");
+        taskScheduler.initialize();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        scheduleUpcoming();
+    }
+
+    @Scheduled(fixedDelayString = "${campaign.transition.refresh-interval-ms:1800000}",
+            initialDelayString = "${campaign.transition.refresh-interval-ms:1800000}")
+    public void scheduleUpcoming() {
+        LocalDateTime now = LocalDateTime.now();
+        // Transitions missed while no node was running, or whose timer failed
+        campaignService.updateCampaignStatuses();
+        campaignStageService.updateStageStatuses();
+
+        LocalDateTime until = now.plus(horizon);
+        campaignRepository.findCampaignsWithBoundaryBetween(now, until).forEach(this::schedule);
+        campaignStageRepository.findStagesWithBoundaryBetween(now, until).forEach(this::schedule);
+        log.info("Scheduled {} campaign status transitions until {}", timers.size(), until);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTimelineChanged(CampaignTimelineChangedEvent event) {
+        if (event.target() == CampaignTimelineChangedEvent.Target.CAMPAIGN) {
+            campaignService.refreshCampaignStatus(event.id());
+            campaignRepository.findById(event.id())
+                    .filter(c -> !c.isDeleted() && c.getStatus() != CampaignStatus.CANCELLED)
+                    .ifPresentOrElse(this::schedule, () -> cancel(campaignKey(event.id())));
+        } else {
+            campaignStageService.refreshStageStatus(event.id());
+            campaignStageRepository.findById(event.id())
+                    .filter(s -> !s.isDeleted())
+                    .ifPresentOrElse(this::schedule, () -> cancel(stageKey(event.id())));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        taskScheduler.shutdown();
+    }
+
+    private void schedule(Campaign campaign) {
+        UUID id = campaign.getId();
+        schedule(campaignKey(id), campaign.getStartDate(), campaign.getEndDate(), campaignService::refreshCampaignStatus, id);
+    }
+
+    private void schedule(CampaignStage stage) {
+        UUID id = stage.getId();
+        schedule(stageKey(id), stage.getStartDate(), stage.getEndDate(), campaignStageService::refreshStageStatus, id);
+    }
+
+    private void schedule(String key, LocalDateTime startDate, LocalDateTime endDate,
+                          Predicate<UUID> refresh, UUID id) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime next;
+        if (startDate.isAfter(now)) {
+            next = startDate;
+        } else if (!endDate.isBefore(now)) {
+            // Status only flips to completed once the end date has passed
+            next = endDate.plusNanos(1_000_000);
+        } else {
+            cancel(key);
+            return;
+        }
+        if (next.isAfter(now.plus(horizon))) {
+            cancel(key);
+            return;
+        }
+        ScheduledFuture<?> timer = taskScheduler.schedule(() -> {
+            timers.remove(key);
+            try {
+                refresh.test(id);
+            } catch (Exception e) {
+                log.error("Failed to apply status transition for {}: {}", key, e.getMessage());
+            }
+            schedule(key, startDate, endDate, refresh, id);
+        }, next.atZone(ZoneId.systemDefault()).toInstant());
+        ScheduledFuture<?> previous = timers.put(key, timer);
+        if (previous != null && previous != timer) {
+            previous.cancel(false);
+        }
+    }
+
+    private void cancel(String key) {
+        ScheduledFuture<?> timer = timers.remove(key);
+        if (timer != null) {
+            timer.cancel(false);
+        }
+    }
+
+    private String campaignKey(UUID id) {
+        return "campaign-" + id;
+    }
+
+    private String stageKey(UUID id) {
+        return "stage-" + id;
+    }
+}
@@ -4,6 +4,7 @@ import com.example.electrical_preorder_system_backend.dto.filter.CampaignFilterC
 import com.example.electrical_preorder_system_backend.dto.request.campaign.CreateCampaignRequest;
 import com.example.electrical_preorder_system_backend.dto.request.campaign.UpdateCampaignRequest;
 import com.example.electrical_preorder_system_backend.dto.response.campaign.CampaignDTO;
+import com.example.electrical_preorder_system_backend.dto.response.campaign.CampaignMetricsDTO;
 import com.example.electrical_preorder_system_backend.entity.Campaign;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -18,14 +19,26 @@ public interface ICampaignService {
 
     CampaignDTO getCampaignById(UUID id);
 
+    /** Order and payment totals of a campaign and of each of its stages, read from the metrics summary rows
+     *
+     * @param id Campaign id
+     * @return CampaignMetricsDTO
+     */
+    CampaignMetricsDTO getCampaignMetrics(UUID id);
+
     Campaign updateCampaign(UUID id, UpdateCampaignRequest request);
 
     void deleteCampaign(UUID id);
 
     void updateCampaignStatuses();
 
-    CampaignDTO convertToDto(Campaign campaign);
+    /** Recompute the status of one campaign from its dates and evict only its cache entries
+     *
+     * @param id Campaign id
+     * @return true if the status changed
+     */
+    boolean refreshCampaignStatus(UUID id);
 
-    void clearCampaignCache();
+    CampaignDTO convertToDto(Campaign campaign);
 
 }
\ No newline at end of file
@@ -12,14 +12,22 @@ import com.example.electrical_preorder_system_backend.exception.ResourceNotFound
 import com.example.electrical_preorder_system_backend.repository.CampaignRepository;
 import com.example.electrical_preorder_system_backend.repository.CampaignStageRepository;
 import com.example.electrical_preorder_system_backend.repository.StageHistoryRepository;
+import com.example.electrical_preorder_system_backend.service.cache.CacheTags;
+import com.example.electrical_preorder_system_backend.service.cache.ICacheTagService;
+import com.example.electrical_preorder_system_backend.service.campaign.CampaignMetricsAggregator;
+import com.example.electrical_preorder_system_backend.service.campaign.CampaignTimelineChangedEvent;
+import com.example.electrical_preorder_system_backend.service.retry.RetryExecutor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -32,30 +40,21 @@ public class CampaignStageService implements ICampaignStageService {
     private final CampaignStageRepository campaignStageRepository;
     private final CampaignRepository campaignRepository;
     private final StageHistoryRepository stageHistoryRepository;
+    private final RetryExecutor retryExecutor;
+    private final ICacheTagService cacheTagService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final CampaignMetricsAggregator campaignMetricsAggregator;
 
-//    @Override
-//    public Map<String, Object> getCampaignPerformanceMetrics(UUID campaignId) {
-//        Campaign campaign = getCampaignById(campaignId);
-//        List<CampaignStage> stages = getCampaignStagesByCampaignId(campaignId);
-//
-//        int totalSold = stages.stream().mapToInt(CampaignStage::getQuantitySold).sum();
-//        double progressPercentage = campaign.getMaxQuantity() > 0 ?
-//                (totalSold * 100.0 / campaign.getMaxQuantity()) : 0;
-//
-//        Map<String, Object> metrics = new HashMap<>();
-//        metrics.put("totalSold", totalSold);
-//        metrics.put("totalTarget", campaign.getMaxQuantity());
-//        metrics.put("progressPercentage", progressPercentage);
-//        metrics.put("activeStages", stages.stream()
-//                .filter(s -> s.getStatus() == CampaignStageStatus.ACTIVE)
-//                .count());
-//
-//        return metrics;
-//    }
+    @Value("${campaign.transition.mode:bulk}")
+    private String transitionMode;
+
+    private record StageTransition(UUID stageId, CampaignStageStatus preStatus,
+                                   CampaignStageStatus curStatus, UUID campaignId) {
+    }
 
     @Override
     @Transactional
-    @CacheEvict(value = {"campaigns", "products"}, allEntries = true)
     public CampaignStage createCampaignStage(CreateCampaignStageRequest request, UUID campaignId) {
         Campaign campaign = campaignRepository.findById(campaignId)
                 .orElseThrow(() -> new ResourceNotFoundException("Campaign not found with id: " + campaignId));
@@ -83,13 +82,15 @@ public class CampaignStageService implements ICampaignStageService {
         newStage.setStatus(CampaignStageStatus.UPCOMING);
         newStage.setCampaign(campaign);
         newStage = campaignStageRepository.save(newStage);
+        campaignMetricsAggregator.initStage(newStage.getId(), campaignId);
+        eventPublisher.publishEvent(CampaignTimelineChangedEvent.ofStage(newStage.getId()));
+        cacheTagService.invalidate(List.of(CacheTags.campaign(campaignId)));
         log.info("Created campaign stage with name: {}", stageName);
         return newStage;
     }
 
     @Override
     @Transactional
-    @CacheEvict(value = {"campaigns", "products"}, allEntries = true)
     public CampaignStage updateCampaignStage(UUID campaignId, UUID stageId, UpdateCampaignStageRequest request) {
         CampaignStage stage = campaignStageRepository.findById(stageId)
                 .orElseThrow(() -> new ResourceNotFoundException("Campaign stage not found with id: " + stageId));
@@ -114,6 +115,8 @@ public class CampaignStageService implements ICampaignStageService {
         }
         updateStageStatus(stage);
         stage = campaignStageRepository.save(stage);
+        eventPublisher.publishEvent(CampaignTimelineChangedEvent.ofStage(stage.getId()));
+        cacheTagService.invalidate(List.of(CacheTags.campaign(campaign.getId())));
         log.info("Updated campaign stage with id {}", stage.getId());
         return stage;
     }
@@ -132,7 +135,6 @@ public class CampaignStageService implements ICampaignStageService {
 
     @Override
     @Transactional
-    @CacheEvict(value = {"campaigns", "products"}, allEntries = true)
     public void deleteCampaignStage(UUID campaignId, UUID stageId) {
         Campaign campaign = campaignRepository.findActiveCampaignById(campaignId);
         if (campaign == null) {
@@ -142,6 +144,8 @@ public class CampaignStageService implements ICampaignStageService {
                 .orElseThrow(() -> new ResourceNotFoundException("Campaign stage not found with id: " + stageId));
         stage.setDeleted(true);
         campaignStageRepository.save(stage);
+        eventPublisher.publishEvent(CampaignTimelineChangedEvent.ofStage(stageId));
+        cacheTagService.invalidate(List.of(CacheTags.campaign(stage.getCampaign().getId())));
         log.info("Marked campaign stage with id {} as deleted.", stageId);
     }
 
@@ -168,26 +172,89 @@ public class CampaignStageService implements ICampaignStageService {
         return dto;
     }
 
-    @Scheduled(fixedRate = 60000)
-    @Transactional
-    @CacheEvict(value = {"campaigns", "products"}, allEntries = true)
-    public void scheduleUpdateStageStatuses() {
-        log.info("Running scheduled task to update campaign stage statuses.");
+    @Override
+    public void updateStageStatuses() {
+        if (!"bulk".equalsIgnoreCase(transitionMode)) {
+            campaignStageRepository.findIdsWithStaleStatus(LocalDateTime.now()).forEach(this::refreshStageStatus);
+            return;
+        }
+        List<StageTransition> transitions = retryExecutor.executeInTransaction(
+                "update campaign stage statuses", this::applyStatusTransitions);
+        if (!transitions.isEmpty()) {
+            cacheTagService.invalidate(transitions.stream()
+                    .map(t -> CacheTags.campaign(t.campaignId()))
+                    .toList());
+            log.info("Updated status of {} campaign stages", transitions.size());
+        }
+    }
+
+    private List<StageTransition> applyStatusTransitions() {
         LocalDateTime now = LocalDateTime.now();
-        campaignStageRepository.findByIsDeletedFalse().forEach(stage -> {
+        List<StageTransition> transitions = new ArrayList<>();
+        transitions.addAll(transitionStatus(CampaignStageStatus.UPCOMING, "start_date > :now", now));
+        transitions.addAll(transitionStatus(CampaignStageStatus.ACTIVE, "start_date <= :now AND end_date >= :now", now));
+        transitions.addAll(transitionStatus(CampaignStageStatus.COMPLETED, "end_date < :now", now));
+
+        List<Object[]> history = transitions.stream()
+                .map(t -> new Object[]{UUID.randomUUID(), t.preStatus().name(), t.curStatus().name(), now, t.stageId(), now, now})
+                .toList();
+        jdbcTemplate.getJdbcTemplate().batchUpdate(
+                "INSERT INTO stage_history (id, pre_status, cur_status, transition_time, campaign_stage_id, created_at, updated_at) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?)", history);
+        return transitions;
+    }
+
+    private List<StageTransition> transitionStatus(CampaignStageStatus target, String dateCondition, LocalDateTime now) {
+        // The CTE locks the stale rows and keeps their previous status for the stage history
+        String sql = "WITH stale AS (" +
+                "SELECT id, status AS pre_status FROM campaign_stage " +
+                "WHERE is_deleted = false AND status <> :status AND " + dateCondition + " " +
+                "FOR UPDATE) " +
+                "UPDATE campaign_stage cs SET status = :status, version = cs.version + 1, updated_at = :now " +
+                "FROM stale WHERE cs.id = stale.id " +
+                "RETURNING cs.id, stale.pre_status, cs.campaign_id";
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("status", target.name())
+                .addValue("now", now);
+        return jdbcTemplate.query(sql, params, (rs, rowNum) -> new StageTransition(
+                rs.getObject(1, UUID.class),
+                CampaignStageStatus.valueOf(rs.getString(2)),
+                target,
+                rs.getObject(3, UUID.class)));
+    }
+
+    @Override
+    public boolean refreshStageStatus(UUID id) {
+        UUID campaignId = retryExecutor.executeInTransaction("refresh campaign stage status", () -> {
+            CampaignStage stage = campaignStageRepository.findById(id)
+                    .filter(s -> !s.isDeleted())
+                    .orElse(null);
+            if (stage == null) {
+                return null;
+            }
             CampaignStageStatus oldStatus = stage.getStatus();
             updateStageStatus(stage);
             CampaignStageStatus currentStatus = stage.getStatus();
-            if (currentStatus != oldStatus) {
-                StageHistory history = new StageHistory();
-                history.setCampaignStage(stage);
-                history.setPreStatus(oldStatus);
-                history.setCurStatus(currentStatus);
-                history.setTransitionTime(now);
-                stageHistoryRepository.save(history);
-                log.info("Stage {} status changed from {} to {} at {}", stage.getId(), oldStatus, currentStatus, now);
+            if (currentStatus == oldStatus) {
+                return null;
             }
+            LocalDateTime now = LocalDateTime.now();
+            campaignStageRepository.save(stage);
+            StageHistory history = new StageHistory();
+            history.setCampaignStage(stage);
+            history.setPreStatus(oldStatus);
+            history.setCurStatus(currentStatus);
+            history.setTransitionTime(now);
+            stageHistoryRepository.save(history);
+            log.info("Stage {} status changed from {} to {} at {}", stage.getId(), oldStatus, currentStatus, now);
+            return stage.getCampaign().getId();
         });
+        if (campaignId == null) {
+            return false;
+        }
+        // Stages are rendered inside the product detail, which is tagged with its campaign
+        cacheTagService.invalidate(List.of(CacheTags.campaign(campaignId)));
+        return true;
     }
 
     private void updateStageStatus(CampaignStage stage) {
@@ -14,8 +14,6 @@ public interface ICampaignStageService {
 
     CampaignStage getCampaignStageById(UUID id);
 
-//    Map<String, Object> getCampaignPerformanceMetrics(UUID campaignId);
-
     CampaignStage createCampaignStage(CreateCampaignStageRequest request, UUID campaignId);
 
     CampaignStage updateCampaignStage(UUID campaignId, UUID stageId, UpdateCampaignStageRequest request);
@@ -26,4 +24,15 @@ public interface ICampaignStageService {
 
     CampaignStageDTO convertToDto(CampaignStage stage);
 
+    /** Move every stage whose status no longer matches its dates to the right status
+     */
+    void updateStageStatuses();
+
+    /** Recompute the status of one stage from its dates, recording the transition in the stage history
+     *
+     * @param id Campaign stage id
+     * @return true if the status changed
+     */
+    boolean refreshStageStatus(UUID id);
+
 }
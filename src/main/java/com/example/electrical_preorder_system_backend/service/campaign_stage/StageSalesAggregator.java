@@ -0,0 +1,105 @@
+package com.example.electrical_preorder_system_backend.service.campaign_stage;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Write-behind buffer for CampaignStage.quantitySold. Sold quantities are summed per stage in memory
+ * and written as one additive UPDATE per stage, either every flush interval or as soon as the number
+ * of buffered events reaches the flush threshold. A burst of payments on one campaign then costs one
+ * statement for the hot stage row instead of a select and an update per order.
+ */
+@Slf4j
+@Component
+public class StageSalesAggregator {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TaskExecutor taskExecutor;
+    private final int flushThreshold;
+
+    private final ConcurrentHashMap<UUID, Integer> pendingSales = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingEvents = new AtomicInteger();
+    private final AtomicBoolean flushing = new AtomicBoolean();
+
+    public StageSalesAggregator(JdbcTemplate jdbcTemplate,
+                                @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                                @Value("${campaign.stage.sales.flush-threshold:100}") int flushThreshold) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.taskExecutor = taskExecutor;
+        this.flushThreshold = flushThreshold;
+    }
+
+    /** Add sold quantity to a stage, buffered until the current transaction commits
+     *
+     * @param stageId Campaign stage id
+     * @param quantity Sold quantity
+     */
+    public void recordSale(UUID stageId, int quantity) {
+        if (quantity <= 0) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    buffer(stageId, quantity);
+                }
+            });
+        } else {
+            buffer(stageId, quantity);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${campaign.stage.sales.flush-interval-ms:200}")
+    public void flush() {
+        if (pendingSales.isEmpty() || !flushing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            pendingEvents.set(0);
+            List<Object[]> rows = new ArrayList<>();
+            for (UUID stageId : pendingSales.keySet()) {
+                Integer delta = pendingSales.remove(stageId);
+                if (delta != null && delta > 0) {
+                    rows.add(new Object[]{delta, stageId});
+                }
+            }
+            try {
+                jdbcTemplate.batchUpdate("UPDATE campaign_stage SET quantity_sold = quantity_sold + ? WHERE id = ?", rows);
+                log.debug("Flushed sold quantities of {} campaign stages", rows.size());
+            } catch (Exception e) {
+                log.error("Failed to flush sold quantities, retrying on next run: {}", e.getMessage());
+                rows.forEach(row -> pendingSales.merge((UUID) row[1], (Integer) row[0], Integer::sum));
+            }
+        } finally {
+            flushing.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void buffer(UUID stageId, int quantity) {
+        pendingSales.merge(stageId, quantity, Integer::sum);
+        if (pendingEvents.incrementAndGet() >= flushThreshold) {
+            taskExecutor.execute(this::flush);
+        }
+    }
+}
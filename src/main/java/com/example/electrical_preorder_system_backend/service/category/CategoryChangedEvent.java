@@ -0,0 +1,12 @@
+package com.example.electrical_preorder_system_backend.service.category;
+
+import java.util.UUID;
+
+/**
+ * Published when a category is created, renamed, restored or deleted, so copies of
+ * the category names kept outside the database can be refreshed once the change is committed.
+ *
+ * @param categoryId  id of the changed category
+ */
+public record CategoryChangedEvent(UUID categoryId) {
+}
@@ -9,11 +9,13 @@ import com.example.electrical_preorder_system_backend.exception.ResourceNotFound
 import com.example.electrical_preorder_system_backend.mapper.CategoryMapper;
 import com.example.electrical_preorder_system_backend.repository.CategoryRepository;
 import com.example.electrical_preorder_system_backend.repository.ProductRepository;
-import com.example.electrical_preorder_system_backend.service.product.IProductService;
+import com.example.electrical_preorder_system_backend.service.cache.CacheTags;
+import com.example.electrical_preorder_system_backend.service.cache.ICacheTagService;
+import com.example.electrical_preorder_system_backend.service.typeahead.ITypeaheadService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,31 +30,25 @@ public class CategoryService implements ICategoryService {
 
     private final CategoryRepository categoryRepository;
     private final ProductRepository productRepository;
-    private final IProductService productService;
+    private final ICacheTagService cacheTagService;
+    private final ITypeaheadService typeaheadService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
-    @Cacheable(value = "categories")
+    @Cacheable(value = "categories", key = "'all'")
     public List<CategoryDTO> getAllCategories() {
         log.info("Fetching active categories from the database.");
         List<Category> categories = categoryRepository.findByIsDeletedFalseOrderByNameAsc();
+        cacheTagService.tag(CacheTags.cacheKey("categories", "all"), List.of(CacheTags.CATEGORY_LIST));
         return categories.stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
 
     @Override
-    @Cacheable(value = "categories", key = "'search_' + #searchTerm")
     public List<CategoryDTO> searchCategories(String searchTerm) {
-        log.info("Searching categories with term: {}", searchTerm);
-
-        if (searchTerm == null || searchTerm.trim().isEmpty()) {
-            return getAllCategories();
-        }
-
-        List<Category> categories = categoryRepository.searchCategoriesByName(searchTerm.trim());
-        return categories.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        // Served from the category names held by the typeahead, not cached per term
+        return typeaheadService.searchCategories(searchTerm);
     }
 
     @Override
@@ -63,37 +59,40 @@ public class CategoryService implements ICategoryService {
                 .filter(cat -> !cat.isDeleted())
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found!"));
 
+        cacheTagService.tag(CacheTags.cacheKey("categories", "category-" + id), List.of(CacheTags.category(id)));
         return CategoryMapper.toCategoryDTO(category);
     }
 
     @Override
     @Transactional
-    @CacheEvict(value = "categories", allEntries = true)
     public CategoryDTO createCategory(CreateCategoryRequest request) {
         String trimmedName = request.getName().trim();
+        cacheTagService.invalidate(List.of(CacheTags.CATEGORY_LIST));
 
         Category existingCategory = categoryRepository.findByNameIgnoreCase(trimmedName);
 
         if (existingCategory != null) {
             if (existingCategory.isDeleted()) {
                 existingCategory.setDeleted(false);
+                eventPublisher.publishEvent(new CategoryChangedEvent(existingCategory.getId()));
                 return convertToDto(categoryRepository.save(existingCategory));
             } else {
                 throw new AlreadyExistsException("Category '" + trimmedName + "' already exists.");
             }
         }
 
-        Category newCategory = new Category(trimmedName);
-        return convertToDto(categoryRepository.save(newCategory));
+        Category newCategory = categoryRepository.save(new Category(trimmedName));
+        eventPublisher.publishEvent(new CategoryChangedEvent(newCategory.getId()));
+        return convertToDto(newCategory);
     }
 
     @Override
     @Transactional
-    @CacheEvict(value = "categories", allEntries = true)
     public CategoryDTO updateCategory(UUID id, UpdateCategoryRequest request) {
         Category existingCategory = categoryRepository.findById(id)
                 .filter(cat -> !cat.isDeleted())
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found!"));
+        cacheTagService.invalidate(List.of(CacheTags.category(id), CacheTags.CATEGORY_LIST));
 
         String newName = request.getName().trim();
         Category duplicate = categoryRepository.findByName(newName);
@@ -102,6 +101,7 @@ public class CategoryService implements ICategoryService {
                 duplicate.setDeleted(false);
                 existingCategory.setDeleted(true);
                 categoryRepository.save(existingCategory);
+                eventPublisher.publishEvent(new CategoryChangedEvent(id));
                 return convertToDto(categoryRepository.save(duplicate));
             } else {
                 throw new AlreadyExistsException("Category '" + newName + "' already exists.");
@@ -110,13 +110,12 @@ public class CategoryService implements ICategoryService {
         existingCategory.setName(newName);
         log.info("Updated category with ID {}: new name {}", id, newName);
         existingCategory = categoryRepository.save(existingCategory);
-        productService.clearProductCache();
+        eventPublisher.publishEvent(new CategoryChangedEvent(id));
         log.info("Category with ID {} updated and product cache cleared.", id);
         return convertToDto(existingCategory);
     }
 
     @Override
-    @CacheEvict(value = "categories", allEntries = true)
     public void deleteCategoryById(UUID id) {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found!"));
@@ -128,7 +127,8 @@ public class CategoryService implements ICategoryService {
 
         category.setDeleted(true);
         categoryRepository.save(category);
-        productService.clearProductCache();
+        cacheTagService.invalidate(List.of(CacheTags.category(id), CacheTags.CATEGORY_LIST));
+        eventPublisher.publishEvent(new CategoryChangedEvent(id));
         log.info("Category with ID {} marked as deleted and product cache cleared.", id);
     }
 
@@ -0,0 +1,65 @@
+package com.example.electrical_preorder_system_backend.service.inventory;
+
+import com.example.electrical_preorder_system_backend.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+/**
+ * Stock gate that works directly on the product table with conditional UPDATE statements.
+ * Every change is one round trip that joins the caller's transaction, so a rollback undoes it
+ * without any compensation. Selected with inventory.reservation.mode=database.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "inventory.reservation.mode", havingValue = "database")
+public class DatabaseInventoryReservationService implements IInventoryReservationService {
+
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public boolean reserve(UUID productId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Reserved quantity must be positive");
+        }
+        boolean reserved = productRepository.tryDecrementQuantity(productId, quantity);
+        if (reserved) {
+            eventPublisher.publishEvent(ProductStockChangedEvent.of(productId));
+        }
+        return reserved;
+    }
+
+    @Override
+    public void release(UUID productId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Released quantity must be positive");
+        }
+        productRepository.incrementQuantity(productId, quantity);
+        eventPublisher.publishEvent(ProductStockChangedEvent.of(productId));
+    }
+
+    @Override
+    public boolean adjust(UUID productId, int delta) {
+        if (delta > 0) {
+            return reserve(productId, delta);
+        }
+        if (delta < 0) {
+            release(productId, -delta);
+        }
+        return true;
+    }
+
+    @Override
+    public void resync(UUID productId, int quantity) {
+        // The product row is the counter, the admin write already updated it
+    }
+
+    @Override
+    public void flushPendingAdjustments() {
+        // Nothing is buffered in this mode
+    }
+}
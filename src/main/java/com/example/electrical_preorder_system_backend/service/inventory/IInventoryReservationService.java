@@ -0,0 +1,41 @@
+package com.example.electrical_preorder_system_backend.service.inventory;
+
+import java.util.UUID;
+
+public interface IInventoryReservationService {
+
+    /** Reserve stock of a product with an atomic compare-and-decrement
+     * If a transaction is active, the reservation is released again when it rolls back
+     *
+     * @param productId Product id
+     * @param quantity Quantity to reserve, must be positive
+     * @return true if the stock was reserved, false if there is not enough stock left
+     */
+    boolean reserve(UUID productId, int quantity);
+
+    /** Give reserved stock of a product back
+     *
+     * @param productId Product id
+     * @param quantity Quantity to release, must be positive
+     */
+    void release(UUID productId, int quantity);
+
+    /** Change an existing reservation by delta, reserving when positive and releasing when negative
+     *
+     * @param productId Product id
+     * @param delta New quantity minus old quantity
+     * @return true if the change was applied
+     */
+    boolean adjust(UUID productId, int delta);
+
+    /** Overwrite the stock counter of a product, used when an admin sets the quantity directly
+     *
+     * @param productId Product id
+     * @param quantity New available quantity
+     */
+    void resync(UUID productId, int quantity);
+
+    /** Write the counters of all products touched on this node back to the product table
+     */
+    void flushPendingAdjustments();
+}
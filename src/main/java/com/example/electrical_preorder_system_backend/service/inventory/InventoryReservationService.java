@@ -0,0 +1,219 @@
+package com.example.electrical_preorder_system_backend.service.inventory;
+
+import com.example.electrical_preorder_system_backend.exception.ResourceNotFoundException;
+import com.example.electrical_preorder_system_backend.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stock gate for preorders. The available quantity of each product lives in a Redis counter
+ * that is decremented with a single Lua compare-and-decrement, so concurrent orders on a hot
+ * campaign never wait on the product row and can never push the stock below zero.
+ * The counters of products touched on this node are copied back to the product table in batches.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "inventory.reservation.mode", havingValue = "redis", matchIfMissing = true)
+public class InventoryReservationService implements IInventoryReservationService {
+
+    private static final String STOCK_KEY_PREFIX = "inventory-stock-";
+    private static final int BATCH_SIZE = 500;
+    // A sold-out snapshot younger than this rejects orders without asking Redis
+    private static final long SOLD_OUT_SNAPSHOT_TTL_MS = 250;
+
+    private static final long MISSING = -2L;
+    private static final long INSUFFICIENT = -1L;
+
+    private static final DefaultRedisScript<Long> RESERVE_SCRIPT = new DefaultRedisScript<>(
+            "local stock = redis.call('GET', KEYS[1]) " +
+            "if not stock then return -2 end " +
+            "if tonumber(stock) < tonumber(ARGV[1]) then return -1 end " +
+            "return redis.call('DECRBY', KEYS[1], ARGV[1])",
+            Long.class);
+
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return -2 end " +
+            "return redis.call('INCRBY', KEYS[1], ARGV[1])",
+            Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Set<UUID> dirtyProducts = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<UUID, StockSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    private record StockSnapshot(long stock, long observedAt) {
+    }
+
+    @Override
+    public boolean reserve(UUID productId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Reserved quantity must be positive");
+        }
+        StockSnapshot snapshot = snapshots.get(productId);
+        if (snapshot != null && snapshot.stock() < quantity
+                && System.currentTimeMillis() - snapshot.observedAt() < SOLD_OUT_SNAPSHOT_TTL_MS) {
+            return false;
+        }
+
+        long result = execute(RESERVE_SCRIPT, productId, quantity);
+        if (result == INSUFFICIENT) {
+            remember(productId, quantity - 1L);
+            return false;
+        }
+        remember(productId, result);
+        dirtyProducts.add(productId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        log.info("Rolling back reservation of {} for product {}", quantity, productId);
+                        giveBack(productId, quantity);
+                    }
+                }
+            });
+        }
+        return true;
+    }
+
+    @Override
+    public void release(UUID productId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Released quantity must be positive");
+        }
+        // Stock only becomes available again once the change that freed it is durable
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    giveBack(productId, quantity);
+                }
+            });
+        } else {
+            giveBack(productId, quantity);
+        }
+    }
+
+    @Override
+    public boolean adjust(UUID productId, int delta) {
+        if (delta > 0) {
+            return reserve(productId, delta);
+        }
+        if (delta < 0) {
+            release(productId, -delta);
+        }
+        return true;
+    }
+
+    @Override
+    public void resync(UUID productId, int quantity) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    overwrite(productId, quantity);
+                }
+            });
+        } else {
+            overwrite(productId, quantity);
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${inventory.reservation.flush-interval-ms:500}")
+    public void flushPendingAdjustments() {
+        if (dirtyProducts.isEmpty()) {
+            return;
+        }
+        List<UUID> productIds = new ArrayList<>(dirtyProducts);
+        productIds.forEach(dirtyProducts::remove);
+
+        for (int from = 0; from < productIds.size(); from += BATCH_SIZE) {
+            List<UUID> batch = productIds.subList(from, Math.min(from + BATCH_SIZE, productIds.size()));
+            try {
+                List<String> values = stringRedisTemplate.opsForValue()
+                        .multiGet(batch.stream().map(this::stockKey).toList());
+                List<Object[]> rows = new ArrayList<>(batch.size());
+                List<UUID> written = new ArrayList<>(batch.size());
+                for (int i = 0; i < batch.size(); i++) {
+                    String value = values == null ? null : values.get(i);
+                    if (value != null) {
+                        rows.add(new Object[]{Integer.parseInt(value), batch.get(i)});
+                        written.add(batch.get(i));
+                    }
+                }
+                jdbcTemplate.batchUpdate("UPDATE product SET quantity = ? WHERE id = ?", rows);
+                log.debug("Reconciled stock of {} products", rows.size());
+                if (!written.isEmpty()) {
+                    eventPublisher.publishEvent(new ProductStockChangedEvent(written));
+                }
+            } catch (Exception e) {
+                log.error("Failed to reconcile product stock, retrying on next run: {}", e.getMessage());
+                dirtyProducts.addAll(batch);
+            }
+        }
+    }
+
+    private void overwrite(UUID productId, int quantity) {
+        stringRedisTemplate.opsForValue().set(stockKey(productId), String.valueOf(quantity));
+        snapshots.remove(productId);
+        // A flush that raced with the admin write is corrected by the next one
+        dirtyProducts.add(productId);
+    }
+
+    private void giveBack(UUID productId, int quantity) {
+        long result = execute(RELEASE_SCRIPT, productId, quantity);
+        remember(productId, result);
+        dirtyProducts.add(productId);
+    }
+
+    private long execute(DefaultRedisScript<Long> script, UUID productId, int quantity) {
+        String key = stockKey(productId);
+        Long result = stringRedisTemplate.execute(script, List.of(key), String.valueOf(quantity));
+        if (result != null && result == MISSING) {
+            seed(productId);
+            result = stringRedisTemplate.execute(script, List.of(key), String.valueOf(quantity));
+        }
+        if (result == null || result == MISSING) {
+            throw new IllegalStateException("Failed to update stock of product " + productId);
+        }
+        return result;
+    }
+
+    private void seed(UUID productId) {
+        Integer quantity = productRepository.findQuantityById(productId);
+        if (quantity == null) {
+            throw new ResourceNotFoundException("Product not found with id: " + productId);
+        }
+        // Only the first node to seed wins, later ones keep the live counter
+        stringRedisTemplate.opsForValue().setIfAbsent(stockKey(productId), String.valueOf(quantity));
+    }
+
+    private void remember(UUID productId, long stock) {
+        snapshots.put(productId, new StockSnapshot(stock, System.currentTimeMillis()));
+    }
+
+    private String stockKey(UUID productId) {
+        return STOCK_KEY_PREFIX + productId;
+    }
+}
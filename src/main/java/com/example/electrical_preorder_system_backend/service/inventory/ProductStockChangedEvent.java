@@ -0,0 +1,18 @@
+package com.example.electrical_preorder_system_backend.service.inventory;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Published when the stock of products is written to the product table, so copies of the catalog kept
+ * outside the database can refresh their quantities once the change is committed.
+ *
+ * @param productIds  ids of the products whose stock changed
+ */
+public record ProductStockChangedEvent(Collection<UUID> productIds) {
+
+    public static ProductStockChangedEvent of(UUID productId) {
+        return new ProductStockChangedEvent(List.of(productId));
+    }
+}
@@ -53,10 +53,12 @@ public interface INotificationService {
      * @param id   User id
      * @param page Page number
      * @param size Number of items per page
+     * @param mode Pagination mode, offset or keyset
+     * @param cursor Cursor of the next page in keyset mode, null for the first page
      * @return Page of notifications
      *
      */
-    NotificationListDTO getNotifications(UUID id, int page, int size);
+    NotificationListDTO getNotifications(UUID id, int page, int size, String mode, String cursor);
 
     /**
      * Mark notification as read
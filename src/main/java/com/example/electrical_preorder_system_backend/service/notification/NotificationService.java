@@ -12,6 +12,8 @@ import com.example.electrical_preorder_system_backend.mapper.NotificationMapper;
 import com.example.electrical_preorder_system_backend.repository.NotificationRepository;
 import com.example.electrical_preorder_system_backend.repository.UserRepository;
 import com.example.electrical_preorder_system_backend.service.RabbitMQService;
+import com.example.electrical_preorder_system_backend.util.KeysetCursor;
+import com.example.electrical_preorder_system_backend.util.KeysetCursor.KeysetPage;
 import com.example.electrical_preorder_system_backend.util.Validator;
 import com.google.firebase.messaging.*;
 import lombok.RequiredArgsConstructor;
@@ -133,7 +135,12 @@ public class NotificationService implements INotificationService{
     }
 
     @Override
-    public NotificationListDTO getNotifications(UUID id, int page, int size) {
+    public NotificationListDTO getNotifications(UUID id, int page, int size, String mode, String cursor) {
+        if (KeysetCursor.isKeysetMode(mode)) {
+            KeysetPage<Notification> notifications = KeysetCursor.fetch(notificationRepository, Notification.class,
+                    NotificationRepository.hasUserId(id), cursor, "createdAt", Sort.Direction.DESC, size);
+            return NotificationMapper.toNotificationListDTO(notifications.content(), notifications.nextCursor(), size);
+        }
         Pageable pageable = PageRequest.of(page, size, Sort.Direction.DESC, "createdAt");
         Page<Notification> notifications = notificationRepository.findAllByUserId(id, pageable);
         List<Notification> notificationList = notifications.getContent();
@@ -26,12 +26,14 @@ public interface IOrderService {
      * @param status Order status
      * @param page Page number
      * @param size Page size
+     * @param mode Pagination mode, offset or keyset
+     * @param cursor Cursor of the next page in keyset mode, null for the first page
      * @return OrderListDTO
      */
     OrderListDTO getOrders(int page, int size, String status, boolean isDeleted, String sortField, String sortDirection, LocalDateTime createdAtMin,
                            LocalDateTime createdAtMax, UUID userId, UUID campaignId,
                            LocalDateTime expectedDeliveryDateMin,
-                           LocalDateTime expectedDeliveryDateMax);
+                           LocalDateTime expectedDeliveryDateMax, String mode, String cursor);
     /** Update order with user, orderId and updateOrderRequest
      * Now only update quantity
      * Available for owner and admin
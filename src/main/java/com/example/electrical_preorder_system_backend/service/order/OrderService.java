@@ -9,11 +9,17 @@ import com.example.electrical_preorder_system_backend.enums.CampaignStatus;
 import com.example.electrical_preorder_system_backend.enums.OrderStatus;
 import com.example.electrical_preorder_system_backend.enums.UserRole;
 import com.example.electrical_preorder_system_backend.mapper.OrderMapper;
+import com.example.electrical_preorder_system_backend.repository.AggregateTotalsRepository;
+import com.example.electrical_preorder_system_backend.repository.AggregateTotalsRepository.AggregateTotals;
 import com.example.electrical_preorder_system_backend.repository.CampaignRepository;
 import com.example.electrical_preorder_system_backend.repository.CampaignStageRepository;
 import com.example.electrical_preorder_system_backend.repository.OrderRepository;
-import com.example.electrical_preorder_system_backend.repository.ProductRepository;
 import com.example.electrical_preorder_system_backend.repository.specification.OrderSpecification;
+import com.example.electrical_preorder_system_backend.service.campaign.CampaignMetricsAggregator;
+import com.example.electrical_preorder_system_backend.service.inventory.IInventoryReservationService;
+import com.example.electrical_preorder_system_backend.service.retry.RetryExecutor;
+import com.example.electrical_preorder_system_backend.util.KeysetCursor;
+import com.example.electrical_preorder_system_backend.util.KeysetCursor.KeysetPage;
 import com.example.electrical_preorder_system_backend.util.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -29,6 +35,8 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -36,9 +44,12 @@ import java.util.UUID;
 public class OrderService implements IOrderService{
 
     private final OrderRepository orderRepository;
-    private final ProductRepository productRepository;
+    private final IInventoryReservationService inventoryReservationService;
+    private final RetryExecutor retryExecutor;
     private final CampaignRepository campaignRepository;
     private final CampaignStageRepository campaignStageRepository;
+    private final AggregateTotalsRepository aggregateTotalsRepository;
+    private final CampaignMetricsAggregator campaignMetricsAggregator;
 
     @Override
     @Transactional
@@ -47,15 +58,17 @@ public class OrderService implements IOrderService{
         if (!isValidCampaignToOrder(campaign)) {
             throw new IllegalArgumentException("Invalid campaign to order");
         }
-        if (!isValidQuantity(campaign.getProduct(), createOrderRequest.getQuantity())) {
+        if (!isValidQuantity(createOrderRequest.getQuantity())) {
+            throw new IllegalArgumentException("Invalid quantity");
+        }
+        Product product = campaign.getProduct();
+        //Reserve stock first, it is given back automatically if the order cannot be saved
+        if (!inventoryReservationService.reserve(product.getId(), createOrderRequest.getQuantity())) {
             throw new IllegalArgumentException("Invalid quantity");
         }
 
-        //Update product quantity and create new order
+        //Create new order
         try{
-            Product product = campaign.getProduct();
-            product.setQuantity(product.getQuantity() - createOrderRequest.getQuantity());
-            productRepository.save(product);
 
             List<Order> orders = orderRepository.findByUserIdAndCampaignId(user.getId(), campaign.getId());
 //            Order order = orders.stream().filter(o -> o.getStatus().equals(OrderStatus.PENDING)).findFirst().orElse(null);
@@ -73,7 +86,9 @@ public class OrderService implements IOrderService{
                 .status(OrderStatus.PENDING)
                 .build();
 //            }
-            return OrderMapper.toOrderDTO(orderRepository.save(order));
+            OrderDTO savedOrder = OrderMapper.toOrderDTO(orderRepository.save(order));
+            campaignMetricsAggregator.orderPlaced(campaign.getId(), order.getQuantity());
+            return savedOrder;
 
         }catch (Exception e){
             log.info("Failed to create order: {} ", e.getMessage());
@@ -85,49 +100,67 @@ public class OrderService implements IOrderService{
     public OrderListDTO getOrders(int page, int size, String status, boolean isDeleted, String sortField, String sortDirection, LocalDateTime createdAtMin,
                                   LocalDateTime createdAtMax, UUID userId, UUID campaignId,
                                   LocalDateTime expectedDeliveryDateMin,
-                                  LocalDateTime expectedDeliveryDateMax) {
+                                  LocalDateTime expectedDeliveryDateMax, String mode, String cursor) {
         String errorResponseMessage = Validator.verifyOrderFilter(page, size, status, sortField, sortDirection, Order.class);
         if (errorResponseMessage != null) {
             throw new IllegalArgumentException(errorResponseMessage);
         }
 
-        Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortField);
-        Pageable pageable = PageRequest.of(page, size, sort);
         Specification<Order> spec = Specification.where(
                 OrderSpecification.hasCampaignId(campaignId))
                 .and(OrderSpecification.hasUserId(userId))
                 .and(OrderSpecification.hasStatus(status))
                 .and(OrderSpecification.hasCreatedBetween(createdAtMin, createdAtMax))
                 .and(OrderSpecification.hasExpectedDeliveryDateBetween(expectedDeliveryDateMin, expectedDeliveryDateMax));
+        if (KeysetCursor.isKeysetMode(mode)) {
+            KeysetPage<Order> orders = KeysetCursor.fetch(orderRepository, Order.class, spec, cursor, sortField,
+                    Sort.Direction.fromString(sortDirection), size);
+            return OrderMapper.toOrderListDTO(orders.content(), orders.nextCursor(), size);
+        }
+
+        Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortField);
+        Pageable pageable = PageRequest.of(page, size, sort);
         Page<Order> orderPage = orderRepository.findAll(spec, pageable);
-        long totalAmount = orderPage.stream().mapToLong(order -> order.getTotalAmount().longValue()).sum();
-        return OrderMapper.toOrderListDTO(
+        String totalsKey = Stream.of(status, createdAtMin, createdAtMax, userId, campaignId,
+                        expectedDeliveryDateMin, expectedDeliveryDateMax)
+                .map(String::valueOf)
+                .collect(Collectors.joining("|"));
+        AggregateTotals totals = aggregateTotalsRepository.aggregate(Order.class, spec, "totalAmount", totalsKey);
+        OrderListDTO orderList = OrderMapper.toOrderListDTO(
                 orderPage.getContent(),
-                totalAmount,
+                totals.sum().longValue(),
                 orderPage.getTotalPages(),
                 orderPage.getTotalElements(),
                 orderPage.getNumber(),
                 orderPage.getSize()
         );
+        orderList.setAverageAmount(totals.average());
+        return orderList;
     }
 
     @Override
-    @Transactional
     public void update(User user, UUID orderId, UpdateOrderRequest updateOrderRequest) {
+        retryExecutor.runInTransaction("update order", () -> updateOrder(user, orderId, updateOrderRequest));
+    }
+
+    private void updateOrder(User user, UUID orderId, UpdateOrderRequest updateOrderRequest) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Order not found"));
         //Only customer who created the order or admin can update order
         if (!order.getUser().getId().equals(user.getId()) && !user.getRole().equals(UserRole.ROLE_ADMIN)) {
             throw new IllegalArgumentException("Unauthorized to update order");
         }
-        if (!isValidQuantity(order.getCampaign().getProduct(), updateOrderRequest.getQuantity())) {
+        if (!isValidQuantity(updateOrderRequest.getQuantity())) {
             throw new IllegalArgumentException("Invalid quantity");
         }
         //Only pending order can be updated
         if (order.getStatus().equals(OrderStatus.PENDING)) {
             Product product = order.getCampaign().getProduct();
-            product.setQuantity(product.getQuantity() + order.getQuantity() - updateOrderRequest.getQuantity());
-            productRepository.save(product);
+            if (!inventoryReservationService.adjust(product.getId(), updateOrderRequest.getQuantity() - order.getQuantity())) {
+                throw new IllegalArgumentException("Invalid quantity");
+            }
+            campaignMetricsAggregator.orderQuantityChanged(order.getCampaign().getId(),
+                    updateOrderRequest.getQuantity() - order.getQuantity());
             order.setQuantity(updateOrderRequest.getQuantity());
             order.setTotalAmount(order.getCampaign().getProduct().getPrice().multiply(BigDecimal.valueOf(updateOrderRequest.getQuantity())));
             orderRepository.save(order);
@@ -137,6 +170,7 @@ public class OrderService implements IOrderService{
     }
 
     @Override
+    @Transactional
     public void delete(User user, UUID orderId) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Order not found"));
@@ -146,18 +180,17 @@ public class OrderService implements IOrderService{
         }
         //Only pending order can be deleted
         if (order.getStatus().equals(OrderStatus.PENDING)) {
-            Product product = order.getCampaign().getProduct();
-            product.setQuantity(product.getQuantity() + order.getQuantity());
-            productRepository.save(product);
+            inventoryReservationService.release(order.getCampaign().getProduct().getId(), order.getQuantity());
             order.setDeleted(true);
             orderRepository.save(order);
+            campaignMetricsAggregator.pendingOrderRemoved(order.getCampaign().getId(), order.getQuantity());
         }else {
             throw new IllegalArgumentException("Order cannot be deleted");
         }
     }
 
-    private boolean isValidQuantity(Product product, Integer quantity) {
-        return quantity > 0 && quantity < product.getQuantity();
+    private boolean isValidQuantity(Integer quantity) {
+        return quantity != null && quantity > 0;
     }
 
     private boolean isValidCampaignToOrder(Campaign campaign) {
@@ -0,0 +1,18 @@
+package com.example.electrical_preorder_system_backend.service.payment;
+
+import vn.payos.type.CheckoutResponseData;
+import vn.payos.type.PaymentData;
+import vn.payos.type.PaymentLinkData;
+
+/**
+ * Calls to PayOS. Failures are reported as PaymentGatewayException, callers must not hold
+ * a database transaction while calling.
+ */
+public interface IPayOSGateway {
+
+    CheckoutResponseData createPaymentLink(PaymentData paymentData);
+
+    PaymentLinkData getPaymentLinkInformation(long orderCode);
+
+    PaymentLinkData cancelPaymentLink(long orderCode, String reason);
+}
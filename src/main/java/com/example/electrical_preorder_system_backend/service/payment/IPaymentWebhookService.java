@@ -0,0 +1,10 @@
+package com.example.electrical_preorder_system_backend.service.payment;
+
+import com.example.electrical_preorder_system_backend.dto.request.payment.PaymentPayload;
+
+import java.util.Map;
+
+public interface IPaymentWebhookService {
+
+    Map<String, Boolean> receive(PaymentPayload payload);
+}
@@ -0,0 +1,182 @@
+package com.example.electrical_preorder_system_backend.service.payment;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * PayOS order codes, which are also the payment ids. A code packs the milliseconds since 2025-01-01
+ * (40 bits, until 2059), the node id (4 bits) and a per-millisecond sequence (9 bits) into 53 bits,
+ * the largest integer PayOS accepts. Codes of a node only ever increase and no two nodes share a node id,
+ * so codes never collide and no database or Redis round trip is needed per code.
+ * Node ids are leased in Redis and renewed in the background, unless payment.order-code.node-id fixes one.
+ */
+@Slf4j
+@Component
+public class OrderCodeGenerator {
+
+    static final long EPOCH_MS = 1735689600000L;
+    static final int NODE_BITS = 4;
+    static final int SEQUENCE_BITS = 9;
+    static final int MAX_NODES = 1 << NODE_BITS;
+    static final long MAX_ORDER_CODE = (1L << 53) - 1;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final String LEASE_PREFIX = "order-code-node:";
+
+    private static final DefaultRedisScript<Long> RENEW_LEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('PEXPIRE', KEYS[1], ARGV[2]) end return 0",
+            Long.class);
+    private static final DefaultRedisScript<Long> RELEASE_LEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0",
+            Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final boolean fixedNode;
+    private final Duration leaseTtl;
+    private final String leaseToken = UUID.randomUUID().toString();
+
+    private int nodeId = -1;
+    private long leaseValidUntil;
+    private long lastTimestamp = -1;
+    private long sequence;
+
+    public OrderCodeGenerator(StringRedisTemplate stringRedisTemplate,
+                              @Value("${payment.order-code.node-id:-1}") int nodeId,
+                              @Value("${payment.order-code.lease-ttl-ms:30000}") long leaseTtlMs) {
+        if (nodeId >= MAX_NODES) {
+            throw new IllegalArgumentException("payment.order-code.node-id must be below " + MAX_NODES);
+        }
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.fixedNode = nodeId >= 0;
+        this.leaseTtl = Duration.ofMillis(leaseTtlMs);
+        if (fixedNode) {
+            this.nodeId = nodeId;
+            this.leaseValidUntil = Long.MAX_VALUE;
+        }
+    }
+
+    /** Next order code of this node
+     *
+     * @return Positive code, greater than every code returned before by this node
+     */
+    public synchronized long nextOrderCode() {
+        int node = currentNode();
+        // A clock stepping back keeps counting in the last millisecond instead of repeating earlier codes
+        long timestamp = Math.max(System.currentTimeMillis() - EPOCH_MS, lastTimestamp);
+        if (timestamp == lastTimestamp) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                timestamp = waitNextMillis(lastTimestamp);
+            }
+        } else {
+            sequence = 0;
+        }
+        lastTimestamp = timestamp;
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | ((long) node << SEQUENCE_BITS) | sequence;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void leaseOnStartup() {
+        if (fixedNode) {
+            return;
+        }
+        try {
+            lease();
+            log.info("Leased order code node id {}", nodeId);
+        } catch (RuntimeException e) {
+            log.warn("Failed to lease an order code node id, retrying on first use: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${payment.order-code.lease-renew-interval-ms:10000}")
+    public synchronized void renewLease() {
+        if (fixedNode || nodeId < 0) {
+            return;
+        }
+        try {
+            if (renew(nodeId)) {
+                leaseValidUntil = System.currentTimeMillis() + leaseTtl.toMillis() * 2 / 3;
+            } else {
+                log.warn("Order code node id {} lease was lost", nodeId);
+                leaseValidUntil = 0;
+            }
+        } catch (RuntimeException e) {
+            // The lease is still good until it expires, the next renewal may reach Redis again
+            log.warn("Failed to renew order code node id {} lease: {}", nodeId, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public synchronized void releaseLease() {
+        if (fixedNode || nodeId < 0) {
+            return;
+        }
+        try {
+            stringRedisTemplate.execute(RELEASE_LEASE_SCRIPT, List.of(LEASE_PREFIX + nodeId), leaseToken);
+        } catch (RuntimeException e) {
+            log.debug("Failed to release order code node id {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    private int currentNode() {
+        if (System.currentTimeMillis() >= leaseValidUntil) {
+            lease();
+        }
+        return nodeId;
+    }
+
+    private void lease() {
+        long now = System.currentTimeMillis();
+        try {
+            if (nodeId >= 0 && renew(nodeId)) {
+                leaseValidUntil = now + leaseTtl.toMillis() * 2 / 3;
+                return;
+            }
+            // Start at a random id so nodes starting together do not all race for the same keys
+            int offset = ThreadLocalRandom.current().nextInt(MAX_NODES);
+            for (int i = 0; i < MAX_NODES; i++) {
+                int candidate = (offset + i) % MAX_NODES;
+                if (Boolean.TRUE.equals(stringRedisTemplate.opsForValue()
+                        .setIfAbsent(LEASE_PREFIX + candidate, leaseToken, leaseTtl))) {
+                    if (candidate != nodeId) {
+                        // Move on to the next millisecond, so codes keep increasing with the new node id
+                        sequence = SEQUENCE_MASK;
+                    }
+                    nodeId = candidate;
+                    leaseValidUntil = now + leaseTtl.toMillis() * 2 / 3;
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Failed to lease an order code node id", e);
+        }
+        throw new IllegalStateException("No order code node id is free, at most " + MAX_NODES + " nodes can create payments");
+    }
+
+    private boolean renew(int node) {
+        Long renewed = stringRedisTemplate.execute(RENEW_LEASE_SCRIPT, List.of(LEASE_PREFIX + node),
+                leaseToken, String.valueOf(leaseTtl.toMillis()));
+        return renewed != null && renewed == 1L;
+    }
+
+    private static long waitNextMillis(long lastTimestamp) {
+        long timestamp = System.currentTimeMillis() - EPOCH_MS;
+        while (timestamp <= lastTimestamp) {
+            Thread.onSpinWait();
+            timestamp = System.currentTimeMillis() - EPOCH_MS;
+        }
+        return timestamp;
+    }
+}
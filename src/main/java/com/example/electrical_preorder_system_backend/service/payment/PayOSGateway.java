@@ -0,0 +1,152 @@
+package com.example.electrical_preorder_system_backend.service.payment;
+
+import com.example.electrical_preorder_system_backend.exception.PaymentGatewayException;
+import com.example.electrical_preorder_system_backend.service.retry.CircuitBreaker;
+import com.example.electrical_preorder_system_backend.service.retry.RetryExecutor;
+import com.example.electrical_preorder_system_backend.service.retry.RetryPolicy;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import vn.payos.PayOS;
+import vn.payos.exception.PayOSException;
+import vn.payos.type.CheckoutResponseData;
+import vn.payos.type.PaymentData;
+import vn.payos.type.PaymentLinkData;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * PayOS client guarded against a slow or failing PayOS. Each call runs on a virtual thread and is
+ * abandoned after a timeout, at most max-concurrent-calls are in flight (a call that timed out keeps
+ * its slot until PayOS answers), transport failures are retried with a jittered exponential delay,
+ * and consecutive failures open a circuit breaker that refuses calls for a while.
+ * Errors returned by PayOS itself are neither retried nor counted as failures.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "payos.gateway.mode", havingValue = "payos", matchIfMissing = true)
+public class PayOSGateway implements IPayOSGateway {
+
+    private final PayOS payOS;
+    private final RetryExecutor retryExecutor;
+    private final RetryPolicy retryPolicy;
+    private final CircuitBreaker circuitBreaker;
+    private final Semaphore bulkhead;
+    private final long timeoutMs;
+    private final long bulkheadWaitMs;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public PayOSGateway(PayOS payOS,
+                        RetryExecutor retryExecutor,
+                        @Value("${payos.gateway.timeout-ms:5000}") long timeoutMs,
+                        @Value("${payos.gateway.max-attempts:3}") int maxAttempts,
+                        @Value("${payos.gateway.initial-delay-ms:200}") long initialDelayMs,
+                        @Value("${payos.gateway.max-delay-ms:2000}") long maxDelayMs,
+                        @Value("${payos.gateway.max-concurrent-calls:20}") int maxConcurrentCalls,
+                        @Value("${payos.gateway.bulkhead-wait-ms:100}") long bulkheadWaitMs,
+                        @Value("${payos.gateway.circuit.failure-threshold:5}") int failureThreshold,
+                        @Value("${payos.gateway.circuit.open-ms:30000}") long openMs) {
+        this.payOS = payOS;
+        this.retryExecutor = retryExecutor;
+        this.retryPolicy = new RetryPolicy(maxAttempts,
+                Duration.ofMillis(initialDelayMs),
+                Duration.ofMillis(maxDelayMs),
+                e -> e instanceof PaymentGatewayException gateway && gateway.isRetryable());
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, Duration.ofMillis(openMs));
+        this.bulkhead = new Semaphore(Math.max(maxConcurrentCalls, 1));
+        this.timeoutMs = timeoutMs;
+        this.bulkheadWaitMs = bulkheadWaitMs;
+    }
+
+    @Override
+    public CheckoutResponseData createPaymentLink(PaymentData paymentData) {
+        return call("create payment link", () -> payOS.createPaymentLink(paymentData));
+    }
+
+    @Override
+    public PaymentLinkData getPaymentLinkInformation(long orderCode) {
+        return call("get payment link information", () -> payOS.getPaymentLinkInformation(orderCode));
+    }
+
+    @Override
+    public PaymentLinkData cancelPaymentLink(long orderCode, String reason) {
+        return call("cancel payment link", () -> payOS.cancelPaymentLink(orderCode, reason));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T call(String operation, Callable<T> action) {
+        return retryExecutor.execute(operation, retryPolicy, () -> attempt(operation, action));
+    }
+
+    private <T> T attempt(String operation, Callable<T> action) {
+        if (!circuitBreaker.tryAcquire()) {
+            throw new PaymentGatewayException("Payment service is temporarily unavailable, please try again later", false);
+        }
+        if (!acquireSlot()) {
+            circuitBreaker.onIgnored();
+            throw new PaymentGatewayException("Payment service is busy, please try again later", false);
+        }
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                try {
+                    return action.call();
+                } finally {
+                    bulkhead.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            bulkhead.release();
+            circuitBreaker.onIgnored();
+            throw new PaymentGatewayException("Failed to " + operation, false, e);
+        }
+        try {
+            T result = future.get(timeoutMs, TimeUnit.MILLISECONDS);
+            circuitBreaker.onSuccess();
+            return result;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            circuitBreaker.onFailure();
+            throw new PaymentGatewayException("Timed out trying to " + operation, true, e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            circuitBreaker.onIgnored();
+            Thread.currentThread().interrupt();
+            throw new PaymentGatewayException("Interrupted while trying to " + operation, false, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof PayOSException payOSException) {
+                // PayOS answered, the request itself was refused
+                circuitBreaker.onSuccess();
+                log.info("PayOS refused to {}: {} {}", operation, payOSException.getCode(), payOSException.getMessage());
+                throw new PaymentGatewayException("Failed to " + operation + ": " + payOSException.getMessage(),
+                        false, payOSException);
+            }
+            circuitBreaker.onFailure();
+            throw new PaymentGatewayException("Failed to " + operation, true, cause);
+        }
+    }
+
+    private boolean acquireSlot() {
+        try {
+            return bulkhead.tryAcquire(bulkheadWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
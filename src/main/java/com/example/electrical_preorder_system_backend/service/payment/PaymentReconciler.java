@@ -0,0 +1,228 @@
+package com.example.electrical_preorder_system_backend.service.payment;
+
+import com.example.electrical_preorder_system_backend.dto.request.payment.PaymentStatusUpdate;
+import com.example.electrical_preorder_system_backend.enums.PaymentStatus;
+import com.example.electrical_preorder_system_backend.enums.PaymentUpdateOutcome;
+import com.example.electrical_preorder_system_backend.mapper.PaymentMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import vn.payos.type.PaymentLinkData;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Settles payments still PENDING some time after their creation, for which no webhook arrived.
+ * Pending payments are read in keyset batches over (created_at, id), the status of each link is asked
+ * from PayOS by a few virtual threads at a time, and the changes of a batch are applied in one transaction.
+ * Links PayOS still reports as pending after they should have expired are cancelled, which expires the
+ * payment and releases the stock of its orders.
+ * One node reconciles at a time: a run holds a lease in Redis, renewed after each batch, and nodes that
+ * cannot take it skip their run.
+ */
+@Slf4j
+@Component
+public class PaymentReconciler {
+
+    private static final String PENDING_PAYMENTS = """
+            SELECT id, created_at FROM payment
+            WHERE status = 'PENDING' AND created_at < ? AND (created_at, id) > (?, ?)
+            ORDER BY created_at, id
+            LIMIT ?""";
+
+    private static final String LEASE_KEY = "payment-reconciler-lease";
+
+    private static final DefaultRedisScript<Long> RENEW_LEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('PEXPIRE', KEYS[1], ARGV[2]) end return 0",
+            Long.class);
+    private static final DefaultRedisScript<Long> RELEASE_LEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0",
+            Long.class);
+
+    private record PendingPayment(long id, LocalDateTime createdAt) {
+    }
+
+    private final IPaymentService paymentService;
+    private final IPayOSGateway payOSGateway;
+    private final JdbcTemplate jdbcTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final long minAgeMs;
+    private final long expireAfterMs;
+    private final int batchSize;
+    private final int concurrency;
+    private final Duration leaseTtl;
+    private final String leaseToken = UUID.randomUUID().toString();
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public PaymentReconciler(IPaymentService paymentService,
+                             IPayOSGateway payOSGateway,
+                             JdbcTemplate jdbcTemplate,
+                             StringRedisTemplate stringRedisTemplate,
+                             @Value("${payment.reconciler.min-age-ms:300000}") long minAgeMs,
+                             @Value("${payos.payment.expire-time}") long expireTimeSeconds,
+                             @Value("${payment.reconciler.expire-grace-ms:300000}") long expireGraceMs,
+                             @Value("${payment.reconciler.batch-size:100}") int batchSize,
+                             @Value("${payment.reconciler.concurrency:4}") int concurrency,
+                             @Value("${payment.reconciler.lease-ttl-ms:120000}") long leaseTtlMs) {
+        this.paymentService = paymentService;
+        this.payOSGateway = payOSGateway;
+        this.jdbcTemplate = jdbcTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.minAgeMs = minAgeMs;
+        this.expireAfterMs = expireTimeSeconds * 1000 + expireGraceMs;
+        this.batchSize = Math.max(batchSize, 1);
+        this.concurrency = Math.max(concurrency, 1);
+        this.leaseTtl = Duration.ofMillis(leaseTtlMs);
+    }
+
+    @Scheduled(initialDelayString = "${payment.reconciler.interval-ms:60000}",
+            fixedDelayString = "${payment.reconciler.interval-ms:60000}")
+    public void reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        if (!acquireLease()) {
+            running.set(false);
+            return;
+        }
+        int checked = 0;
+        int settled = 0;
+        try (ExecutorService executor = Executors.newFixedThreadPool(concurrency, Thread.ofVirtual().factory())) {
+            LocalDateTime now = LocalDateTime.now();
+            Timestamp createdBefore = Timestamp.valueOf(now.minusNanos(minAgeMs * 1_000_000));
+            LocalDateTime lastCreatedAt = LocalDateTime.of(1970, 1, 1, 0, 0);
+            long lastId = Long.MIN_VALUE;
+            while (true) {
+                List<PendingPayment> batch = jdbcTemplate.query(PENDING_PAYMENTS,
+                        (rs, rowNum) -> new PendingPayment(rs.getLong("id"), rs.getTimestamp("created_at").toLocalDateTime()),
+                        createdBefore, Timestamp.valueOf(lastCreatedAt), lastId, batchSize);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                PendingPayment last = batch.get(batch.size() - 1);
+                lastCreatedAt = last.createdAt();
+                lastId = last.id();
+
+                List<PaymentStatusUpdate> updates = poll(executor, batch, now);
+                checked += batch.size();
+                if (updates == null) {
+                    log.warn("Payment reconciliation stopped, PayOS could not be reached");
+                    break;
+                }
+                if (!updates.isEmpty()) {
+                    settled += (int) paymentService.applyPaymentStatuses(updates).stream()
+                            .filter(PaymentUpdateOutcome.APPLIED::equals).count();
+                }
+                if (batch.size() < batchSize || !renewLease()) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.error("Payment reconciliation failed: {}", e.getMessage());
+        } finally {
+            releaseLease();
+            running.set(false);
+        }
+        if (checked > 0) {
+            log.info("Reconciled {} pending payments, {} settled", checked, settled);
+        }
+    }
+
+    private boolean acquireLease() {
+        try {
+            return Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(LEASE_KEY, leaseToken, leaseTtl));
+        } catch (RuntimeException e) {
+            log.warn("Payment reconciliation skipped, the lease could not be taken: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /** Keep the lease for the next batch
+     *
+     * @return false when the lease was lost, another node may have taken over
+     */
+    private boolean renewLease() {
+        try {
+            Long renewed = stringRedisTemplate.execute(RENEW_LEASE_SCRIPT, List.of(LEASE_KEY),
+                    leaseToken, String.valueOf(leaseTtl.toMillis()));
+            if (renewed != null && renewed == 1L) {
+                return true;
+            }
+            log.warn("Payment reconciliation lease was lost, stopping this run");
+        } catch (RuntimeException e) {
+            log.warn("Failed to renew the payment reconciliation lease, stopping this run: {}", e.getMessage());
+        }
+        return false;
+    }
+
+    private void releaseLease() {
+        try {
+            stringRedisTemplate.execute(RELEASE_LEASE_SCRIPT, List.of(LEASE_KEY), leaseToken);
+        } catch (RuntimeException e) {
+            // The lease expires on its own
+            log.debug("Failed to release the payment reconciliation lease: {}", e.getMessage());
+        }
+    }
+
+    /** Ask PayOS for the status of each payment of a batch
+     *
+     * @return Status changes, null when every lookup of the batch failed
+     */
+    private List<PaymentStatusUpdate> poll(ExecutorService executor, List<PendingPayment> batch, LocalDateTime now)
+            throws InterruptedException {
+        List<Future<PaymentStatusUpdate>> futures = new ArrayList<>(batch.size());
+        for (PendingPayment payment : batch) {
+            futures.add(executor.submit(() -> check(payment, now)));
+        }
+        List<PaymentStatusUpdate> updates = new ArrayList<>();
+        int failures = 0;
+        for (Future<PaymentStatusUpdate> future : futures) {
+            try {
+                PaymentStatusUpdate update = future.get();
+                if (update != null) {
+                    updates.add(update);
+                }
+            } catch (ExecutionException e) {
+                failures++;
+                log.debug("Failed to reconcile payment: {}", e.getCause().getMessage());
+            }
+        }
+        return failures == batch.size() ? null : updates;
+    }
+
+    private PaymentStatusUpdate check(PendingPayment payment, LocalDateTime now) {
+        PaymentLinkData link = payOSGateway.getPaymentLinkInformation(payment.id());
+        PaymentStatus status = toStatus(link);
+        if (status == PaymentStatus.PENDING && payment.createdAt().plusNanos(expireAfterMs * 1_000_000).isBefore(now)) {
+            // PayOS should have expired the link by now, cancel it so it can no longer be paid
+            PaymentLinkData cancelled = payOSGateway.cancelPaymentLink(payment.id(), "Payment link expired");
+            status = toStatus(cancelled) == PaymentStatus.CANCELLED ? PaymentStatus.EXPIRED : toStatus(cancelled);
+        }
+        return status == null || status == PaymentStatus.PENDING || status == PaymentStatus.PROCESSING
+                ? null
+                : new PaymentStatusUpdate(payment.id(), status);
+    }
+
+    private static PaymentStatus toStatus(PaymentLinkData link) {
+        PaymentStatus status = PaymentMapper.toPaymentStatus(link);
+        if (status == null && link != null) {
+            log.warn("Unknown PayOS status {} for payment {}", link.getStatus(), link.getOrderCode());
+        }
+        return status;
+    }
+}
@@ -1,15 +1,24 @@
 package com.example.electrical_preorder_system_backend.service.payment;
 
 import com.example.electrical_preorder_system_backend.dto.request.payment.CreatePaymentRequest;
-import com.example.electrical_preorder_system_backend.dto.request.payment.PaymentPayload;
+import com.example.electrical_preorder_system_backend.dto.request.payment.PaymentStatusUpdate;
 import com.example.electrical_preorder_system_backend.dto.response.payment.PaymentDTO;
 import com.example.electrical_preorder_system_backend.dto.response.payment.PaymentListDTO;
 import com.example.electrical_preorder_system_backend.entity.*;
 import com.example.electrical_preorder_system_backend.enums.*;
+import com.example.electrical_preorder_system_backend.exception.ConcurrentUpdateException;
+import com.example.electrical_preorder_system_backend.exception.PaymentGatewayException;
 import com.example.electrical_preorder_system_backend.mapper.PaymentMapper;
 import com.example.electrical_preorder_system_backend.repository.*;
+import com.example.electrical_preorder_system_backend.repository.AggregateTotalsRepository.AggregateTotals;
 import com.example.electrical_preorder_system_backend.repository.specification.PaymentSpecification;
+import com.example.electrical_preorder_system_backend.service.campaign.CampaignMetricsAggregator;
+import com.example.electrical_preorder_system_backend.service.campaign_stage.StageSalesAggregator;
+import com.example.electrical_preorder_system_backend.service.inventory.IInventoryReservationService;
+import com.example.electrical_preorder_system_backend.service.retry.RetryExecutor;
 import com.example.electrical_preorder_system_backend.service.user.UserService;
+import com.example.electrical_preorder_system_backend.util.KeysetCursor;
+import com.example.electrical_preorder_system_backend.util.KeysetCursor.KeysetPage;
 import com.example.electrical_preorder_system_backend.util.Validator;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
@@ -23,8 +32,7 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import vn.payos.PayOS;
-import vn.payos.exception.PayOSException;
+import org.springframework.transaction.support.TransactionTemplate;
 import vn.payos.type.CheckoutResponseData;
 import vn.payos.type.ItemData;
 import vn.payos.type.PaymentData;
@@ -36,6 +44,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -43,8 +53,6 @@ public class PaymentService implements IPaymentService {
 
     private final CampaignStageRepository campaignStageRepository;
 
-    private static final int MAX_RETRY_CREATE_PAYMENT = 10;
-
     private static final Logger log = LoggerFactory.getLogger(PaymentService.class);
     @Value("${payos.payment.return-url}")
     private String DEFAULT_PAYMENT_RETURN_URL;
@@ -55,98 +63,135 @@ public class PaymentService implements IPaymentService {
     @Value("${payos.payment.expire-time}")
     private Long DEFAULT_PAYMENT_EXPIRE_TIME;
 
-    private final PayOS payOS;
+    private final IPayOSGateway payOSGateway;
+    private final OrderCodeGenerator orderCodeGenerator;
+    private final IInventoryReservationService inventoryReservationService;
+    private final TransactionTemplate transactionTemplate;
 
     private final OrderRepository orderRepository;
     private final PaymentRepository paymentRepository;
     private final ProductRepository productRepository;
     private final UserService userService;
     private final UserRepository userRepository;
+    private final RetryExecutor retryExecutor;
+    private final StageSalesAggregator stageSalesAggregator;
+    private final AggregateTotalsRepository aggregateTotalsRepository;
+    private final CampaignMetricsAggregator campaignMetricsAggregator;
+
 
+    /** Orders of a payment link being created and what PayOS is told about them */
+    private record PaymentDraft(List<UUID> orderIds, List<ItemData> items, BigDecimal amount) {
+    }
 
     @Override
-    @Transactional
-    public CheckoutResponseData createPaymentLink(User user, List<ItemData> items , Integer amount, Payment payment, int retryCreatePayment) {
-        if(retryCreatePayment > MAX_RETRY_CREATE_PAYMENT){
-            throw new RuntimeException("Error while creating payment");
-        }
+    public CheckoutResponseData createPaymentLink(User user, CreatePaymentRequest createPaymentRequest) {
+        PaymentDraft draft = transactionTemplate.execute(status -> preparePayment(createPaymentRequest));
+        // No transaction is open while PayOS is called, a slow PayOS holds no pooled connection or row lock
+        long currentSeconds = System.currentTimeMillis() / 1000;
+        PaymentData paymentData = PaymentData.builder()
+                .orderCode(orderCodeGenerator.nextOrderCode())
+                .amount(draft.amount().intValue())
+                .buyerEmail(user.getEmail())
+                .description(UUID.randomUUID().toString().substring(0, 24))
+                .items(draft.items())
+                .returnUrl(DEFAULT_PAYMENT_RETURN_URL)
+                .cancelUrl(DEFAULT_PAYMENT_CANCEL_URL)
+                .expiredAt(currentSeconds + DEFAULT_PAYMENT_EXPIRE_TIME)
+                .build();
+        CheckoutResponseData responseData = payOSGateway.createPaymentLink(paymentData);
         try {
-            long currentSeconds = (int) (System.currentTimeMillis()/1000);
-            long randomPaymentId = (long) (Math.random() * 1000000000);
-            PaymentData paymentData = PaymentData.builder()
-                    .orderCode(randomPaymentId)
-                    .amount(amount)
-                    .buyerEmail(user.getEmail())
-                    .description(UUID.randomUUID().toString().substring(0, 24))
-                    .items(items)
-                    .returnUrl(DEFAULT_PAYMENT_RETURN_URL)
-                    .cancelUrl(DEFAULT_PAYMENT_CANCEL_URL)
-                    .expiredAt(currentSeconds + DEFAULT_PAYMENT_EXPIRE_TIME)
-                    .build();
-            CheckoutResponseData responseData =  payOS.createPaymentLink(paymentData);
-            payment.setId(responseData.getOrderCode());
-            Payment savedPayment =  paymentRepository.save(payment);
-            for(Order order : savedPayment.getOrders()){
-                order.getPayments().add(savedPayment);
-                orderRepository.save(order);
-            }
-            return responseData;
-        }catch (PayOSException e){
-            log.info("Error while creating payment link: ", e);
-            return createPaymentLink(user, items, amount, payment, retryCreatePayment + 1);
-        }catch (Exception e){
-            log.info("Error while creating payment link: ", e);
-            throw new RuntimeException("Error while creating payment link");
+            transactionTemplate.executeWithoutResult(status ->
+                    savePayment(responseData.getOrderCode(), createPaymentRequest.getMethod(), draft));
+        } catch (RuntimeException e) {
+            cancelQuietly(responseData.getOrderCode());
+            throw e;
+        }
+        return responseData;
+    }
+
+    private PaymentDraft preparePayment(CreatePaymentRequest createPaymentRequest) {
+        List<ItemData> items = new ArrayList<>();
+        BigDecimal amount = BigDecimal.ZERO;
+        List<Order> orders = orderRepository.findAllById(createPaymentRequest.getOrderIds());
+        for (Order order : orders) {
+            requirePending(order);
+            amount = amount.add(order.getTotalAmount());
+            items.add(PaymentMapper.toItemData(order, order.getCampaign().getProduct()));
         }
+        return new PaymentDraft(orders.stream().map(Order::getId).toList(), items, amount);
+    }
 
+    private void savePayment(long orderCode, PaymentMethod method, PaymentDraft draft) {
+        List<Order> orders = orderRepository.findAllById(draft.orderIds());
+        // The orders may have been paid or cancelled while PayOS was called
+        orders.forEach(this::requirePending);
+        Payment payment = new Payment();
+        payment.setId(orderCode);
+        payment.setMethod(method);
+        payment.setStatus(PaymentStatus.PENDING);
+        payment.setAmount(draft.amount());
+        payment.setOrders(new ArrayList<>(orders));
+        Payment savedPayment = paymentRepository.save(payment);
+        for (Order order : orders) {
+            order.getPayments().add(savedPayment);
+        }
+        orderRepository.saveAll(orders);
+    }
+
+    private void requirePending(Order order) {
+        if (!order.getStatus().equals(OrderStatus.PENDING)) {//Only pending orders can be paid
+            throw new RuntimeException("Order " + order.getId() + " is not pending");
+        }
+    }
+
+    private void cancelQuietly(long orderCode) {
+        try {
+            payOSGateway.cancelPaymentLink(orderCode, "Payment could not be recorded");
+        } catch (RuntimeException e) {
+            log.warn("Failed to cancel payment link {}: {}", orderCode, e.getMessage());
+        }
     }
 
     @Override
     @Transactional
-    public CheckoutResponseData createPaymentLink(User user, CreatePaymentRequest createPaymentRequest) {
-            Payment payment = new Payment();
-            payment.setMethod(createPaymentRequest.getMethod());
-            payment.setStatus(PaymentStatus.PENDING);
-            List<ItemData> items = new ArrayList<>();
-            List<Order> orders = orderRepository.findAllById(createPaymentRequest.getOrderIds());
-            for (Order order : orders) {
-                if (order.getStatus().equals(OrderStatus.PENDING)) {//Only pending orders can be paid
-                    payment.setAmount(payment.getAmount().add(order.getTotalAmount()));
-                    items.add(PaymentMapper.toItemData(order, order.getCampaign().getProduct()));
-                } else {
-                    throw new RuntimeException("Order " + order.getId() + " is not pending");
-                }
+    public List<PaymentUpdateOutcome> applyPaymentStatuses(List<PaymentStatusUpdate> updates) {
+        // Locked, so the webhook workers and the reconciler never both settle the same payment
+        Map<Long, Payment> payments = paymentRepository.findAllForUpdate(
+                        updates.stream().map(PaymentStatusUpdate::paymentId).distinct().sorted().toList())
+                .stream()
+                .collect(Collectors.toMap(Payment::getId, payment -> payment));
+        List<PaymentUpdateOutcome> outcomes = new ArrayList<>(updates.size());
+        List<Order> confirmed = new ArrayList<>();
+        List<Order> paid = new ArrayList<>();
+        List<Payment> abandoned = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (PaymentStatusUpdate update : updates) {
+            Payment payment = payments.get(update.paymentId());
+            // Payments not committed yet and redelivered calls for a settled payment change nothing
+            if (payment == null) {
+                outcomes.add(PaymentUpdateOutcome.NOT_FOUND);
+                continue;
             }
-            if (payment.getOrders().isEmpty()) {
-                payment.setOrders(new ArrayList<>());
+            if (!payment.getStatus().equals(PaymentStatus.PENDING)) {
+                outcomes.add(PaymentUpdateOutcome.ALREADY_SETTLED);
+                continue;
             }
-            payment.setOrders(orders);
-           return createPaymentLink(user, items, payment.getAmount().intValue(),payment, 0);
-    }
-
-    @Override
-    public Map<String, Boolean> handleWebhook(PaymentPayload payload) {
-        try {
-            Payment payment = paymentRepository.getReferenceById(payload.getData().getOrderCode());
-            if (payment.getStatus().equals(PaymentStatus.PENDING)) {
-                payment.setStatus(PaymentStatus.fromCode(payload.getData().getCode()));
-                payment.setDate(LocalDateTime.now());
-                paymentRepository.save(payment);
-                List<Order> orders = payment.getOrders();
-                for (Order order : orders) {
-                    order.setStatus(OrderStatus.CONFIRMED);
-                    orderRepository.save(order);
+            payment.setStatus(update.status());
+            payment.setDate(now);
+            if (update.status().equals(PaymentStatus.CANCELLED) || update.status().equals(PaymentStatus.EXPIRED)) {
+                abandoned.add(payment);
+            } else {
+                confirmed.addAll(payment.getOrders());
+                if (update.status().equals(PaymentStatus.PAID)) {
+                    paid.addAll(payment.getOrders());
                 }
-
-            }else {
-                throw new RuntimeException("Handle webhook failed, payment is not pending");
             }
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+            outcomes.add(PaymentUpdateOutcome.APPLIED);
         }
-        // Log the received payload
-        log.info("Received webhook payload: {} " , payload);
-        return Map.of("success", true);
+        confirmOrders(confirmed);
+        recordStageSales(paid);
+        cancelUnpaidOrders(abandoned);
+        return outcomes;
     }
 
     @Override
@@ -163,50 +208,95 @@ public class PaymentService implements IPaymentService {
     @Override
     public PaymentDTO getPaymentLinkInformation(Long paymentId) {
         try {
-            PaymentLinkData paymentLinkData = payOS.getPaymentLinkInformation(paymentId);
-            Payment payment = paymentRepository.getReferenceById(paymentId);
-            if (paymentLinkData != null && !paymentLinkData.getStatus().equals(payment.getStatus().toString())) {
-                log.info("Payment link information: {}", paymentLinkData.getStatus());
-                payment.setStatus(PaymentStatus.valueOf(paymentLinkData.getStatus()));
-                payment.setDate(LocalDateTime.now());
-                List<Order> orders = payment.getOrders();
-                for (Order order : orders) {
-                    order.setStatus(OrderStatus.CONFIRMED);
-                    orderRepository.save(order);
-                }
-                if (payment.getStatus().equals(PaymentStatus.PAID))
-                {
-                    for (Order order : orders) {
-                        Campaign campaign = order.getCampaign();
-                        List<CampaignStage> stages = campaignStageRepository.findCampaignStagesByCampaign(campaign);
-                        for (CampaignStage stage : stages) {
-                            if (stage.getStatus().equals(CampaignStageStatus.ACTIVE)) {
-                                stage.setQuantitySold(stage.getQuantitySold() + order.getQuantity());
-                                campaignStageRepository.save(stage);
-                                break;
-                            }
-                        }
-                    }
-                }
-                return PaymentMapper.toPaymentDTO(paymentRepository.save(payment));
-            }else {
-                return PaymentMapper.toPaymentDTO(payment);
+            PaymentLinkData paymentLinkData = payOSGateway.getPaymentLinkInformation(paymentId);
+            PaymentStatus reported = PaymentMapper.toPaymentStatus(paymentLinkData);
+            if (reported == null && paymentLinkData != null) {
+                log.warn("Unknown PayOS status {} for payment {}", paymentLinkData.getStatus(), paymentId);
             }
+            return retryExecutor.executeInTransaction("update payment status", () -> {
+                // Settled like webhooks and the reconciler do, under the same row lock
+                if (reported != null && reported != PaymentStatus.PENDING && reported != PaymentStatus.PROCESSING) {
+                    applyPaymentStatuses(List.of(new PaymentStatusUpdate(paymentId, reported)));
+                }
+                return PaymentMapper.toPaymentDTO(paymentRepository.getReferenceById(paymentId));
+            });
+        } catch (ConcurrentUpdateException | PaymentGatewayException e) {
+            throw e;
         } catch (Exception e) {
             log.info("Error while getting payment link information:", e);
             throw new RuntimeException(e);
         }
     }
 
+    /** Confirm the orders of a completed payment, only orders still pending leave the pending count
+     *
+     * @param orders Orders of the payment
+     */
+    private void confirmOrders(List<Order> orders) {
+        for (Order order : orders) {
+            if (order.getStatus().equals(OrderStatus.PENDING)) {
+                campaignMetricsAggregator.pendingOrderConfirmed(order.getCampaign().getId());
+            }
+            order.setStatus(OrderStatus.CONFIRMED);
+        }
+        orderRepository.saveAll(orders);
+    }
+
+    /** Cancel the pending orders of abandoned payments and give their stock back, unless another
+     * payment of the order is still pending or paid
+     *
+     * @param payments Cancelled or expired payments
+     */
+    private void cancelUnpaidOrders(List<Payment> payments) {
+        List<Order> cancelled = new ArrayList<>();
+        for (Payment payment : payments) {
+            for (Order order : payment.getOrders()) {
+                boolean otherLivePayment = order.getPayments().stream()
+                        .anyMatch(other -> other.getStatus().equals(PaymentStatus.PENDING)
+                                || other.getStatus().equals(PaymentStatus.PAID));
+                if (!order.getStatus().equals(OrderStatus.PENDING) || otherLivePayment) {
+                    continue;
+                }
+                inventoryReservationService.release(order.getCampaign().getProduct().getId(), order.getQuantity());
+                campaignMetricsAggregator.pendingOrderRemoved(order.getCampaign().getId(), order.getQuantity());
+                order.setStatus(OrderStatus.CANCELLED);
+                cancelled.add(order);
+            }
+        }
+        orderRepository.saveAll(cancelled);
+    }
+
+    /** Credit paid quantities to the active stage of each campaign, one stage lookup per campaign
+     *
+     * @param orders Paid orders
+     */
+    private void recordStageSales(List<Order> orders) {
+        Map<Campaign, List<Order>> ordersByCampaign = orders.stream()
+                .collect(Collectors.groupingBy(Order::getCampaign));
+        ordersByCampaign.forEach((campaign, campaignOrders) -> {
+            int quantity = campaignOrders.stream().mapToInt(Order::getQuantity).sum();
+            BigDecimal amount = campaignOrders.stream().map(Order::getTotalAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+            campaignOrders.forEach(order ->
+                    campaignMetricsAggregator.orderPaid(campaign.getId(), order.getQuantity(), order.getTotalAmount()));
+            campaignStageRepository.findCampaignStagesByCampaign(campaign).stream()
+                    .filter(stage -> stage.getStatus().equals(CampaignStageStatus.ACTIVE))
+                    .findFirst()
+                    .ifPresent(stage -> {
+                        stageSalesAggregator.recordSale(stage.getId(), quantity);
+                        campaignMetricsAggregator.stagePaid(stage.getId(), campaign.getId(), quantity,
+                                campaignOrders.size(), amount);
+                    });
+        });
+    }
+
     @Override
     public PaymentListDTO getPayments(int page, int size, String sortDirection, String sortField, UUID productId, BigDecimal amountFrom, BigDecimal amountTo,
-                                      PaymentStatus status, PaymentMethod method, LocalDateTime createdAtFrom, LocalDateTime createdAtTo,UUID userId) throws AccessDeniedException {
+                                      PaymentStatus status, PaymentMethod method, LocalDateTime createdAtFrom, LocalDateTime createdAtTo,UUID userId,
+                                      String mode, String cursor) throws AccessDeniedException {
         String verifyFilter = Validator.verifyPaymentFilter(page, size, sortField, sortDirection, Payment.class);
         if (verifyFilter != null) {
             throw new RuntimeException(verifyFilter);
         }
-        Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortField);
-        Pageable pageable = PageRequest.of(page, size, sort);
         Specification<Payment> spec = Specification.where(null);
         if (productId != null) {
             try {
@@ -234,16 +324,29 @@ public class PaymentService implements IPaymentService {
         spec = method != null ? spec.and(PaymentSpecification.hasMethod(method)) : spec;
         spec = createdAtFrom != null ? spec.and(PaymentSpecification.createdAtFrom(createdAtFrom)) : spec;
         spec = createdAtTo != null ? spec.and(PaymentSpecification.createdAtTo(createdAtTo)) : spec;
+        if (KeysetCursor.isKeysetMode(mode)) {
+            KeysetPage<Payment> payments = KeysetCursor.fetch(paymentRepository, Payment.class, spec, cursor, sortField,
+                    Sort.Direction.fromString(sortDirection), size);
+            return PaymentMapper.toPaymentListDTO(payments.content(), payments.nextCursor(), size);
+        }
+
+        Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortField);
+        Pageable pageable = PageRequest.of(page, size, sort);
         Page<Payment> payments = paymentRepository.findAll(spec, pageable);
-        BigDecimal totalAmount = payments.stream().map(Payment::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+        String totalsKey = Stream.of(productId, amountFrom, amountTo, status, method, createdAtFrom, createdAtTo, userId)
+                .map(String::valueOf)
+                .collect(Collectors.joining("|"));
+        AggregateTotals totals = aggregateTotalsRepository.aggregate(Payment.class, spec, "amount", totalsKey);
 
-        return PaymentMapper.toPaymentListDTO(
+        PaymentListDTO paymentList = PaymentMapper.toPaymentListDTO(
                 payments.getContent(),
-                totalAmount.longValue(),
+                totals.sum().longValue(),
                 payments.getTotalPages(),
                 payments.getTotalElements(),
                 payments.getNumber(),
                 payments.getSize()
         );
+        paymentList.setAverageAmount(totals.average());
+        return paymentList;
     }
 }
@@ -0,0 +1,268 @@
+package com.example.electrical_preorder_system_backend.service.payment;
+
+import com.example.electrical_preorder_system_backend.dto.request.payment.PaymentPayload;
+import com.example.electrical_preorder_system_backend.dto.request.payment.PaymentPayloadData;
+import com.example.electrical_preorder_system_backend.dto.request.payment.PaymentStatusUpdate;
+import com.example.electrical_preorder_system_backend.enums.PaymentStatus;
+import com.example.electrical_preorder_system_backend.enums.PaymentUpdateOutcome;
+import com.example.electrical_preorder_system_backend.enums.WebhookEventStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Inbox for PayOS webhook calls. A call is stored with an idempotency key and acknowledged at once,
+ * redeliveries of the same call hitting the unique key do nothing. Workers claim stored calls in batches
+ * with SKIP LOCKED, so several workers and nodes never apply the same call, and apply a batch in one
+ * transaction: payments and orders are written together and stage sales are credited once per campaign.
+ * A failing batch is retried call by call in transactions of their own, calls that keep failing are
+ * retried with a growing delay until they are marked FAILED. A call for a payment not found is retried
+ * the same way, as the payment row may not be committed yet, only calls for settled payments are IGNORED.
+ */
+@Slf4j
+@Service
+public class PaymentWebhookService implements IPaymentWebhookService {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private static final String INSERT_EVENT = """
+            INSERT INTO payment_webhook_event
+                (order_code, idempotency_key, status_code, payload, status, attempts, received_at, next_attempt_at)
+            VALUES (?, ?, ?, ?, 'PENDING', 0, ?, ?)
+            ON CONFLICT (idempotency_key) DO NOTHING""";
+
+    private static final String CLAIM_EVENTS = """
+            SELECT id, order_code, status_code, attempts FROM payment_webhook_event
+            WHERE status = 'PENDING' AND next_attempt_at <= ?
+            ORDER BY id
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED""";
+
+    private static final String CLAIM_EVENT = """
+            SELECT id, order_code, status_code, attempts FROM payment_webhook_event
+            WHERE id = ? AND status = 'PENDING'
+            FOR UPDATE SKIP LOCKED""";
+
+    private static final String COMPLETE_EVENT = """
+            UPDATE payment_webhook_event
+            SET status = ?, attempts = attempts + 1, last_error = ?, processed_at = ?
+            WHERE id = ?""";
+
+    private static final String RETRY_EVENT = """
+            UPDATE payment_webhook_event
+            SET status = ?, attempts = attempts + 1, last_error = ?, next_attempt_at = ?
+            WHERE id = ?""";
+
+    private record ClaimedEvent(long id, long orderCode, String statusCode, int attempts) {
+    }
+
+    private final IPaymentService paymentService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TaskExecutor taskExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int workers;
+    private final int maxAttempts;
+    private final long retryDelayMs;
+
+    private final AtomicInteger runningWorkers = new AtomicInteger();
+
+    public PaymentWebhookService(IPaymentService paymentService,
+                                 JdbcTemplate jdbcTemplate,
+                                 ObjectMapper objectMapper,
+                                 @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${payment.webhook.batch-size:100}") int batchSize,
+                                 @Value("${payment.webhook.workers:2}") int workers,
+                                 @Value("${payment.webhook.max-attempts:10}") int maxAttempts,
+                                 @Value("${payment.webhook.retry-delay-ms:1000}") long retryDelayMs) {
+        this.paymentService = paymentService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.taskExecutor = taskExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(batchSize, 1);
+        this.workers = Math.max(workers, 1);
+        this.maxAttempts = Math.max(maxAttempts, 1);
+        this.retryDelayMs = Math.max(retryDelayMs, 0);
+    }
+
+    @Override
+    public Map<String, Boolean> receive(PaymentPayload payload) {
+        PaymentPayloadData data = payload.getData();
+        if (data == null) {
+            throw new IllegalArgumentException("Webhook payload has no data");
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int inserted = jdbcTemplate.update(INSERT_EVENT,
+                data.getOrderCode(), idempotencyKey(payload), data.getCode(), toJson(payload), now, now);
+        if (inserted == 0) {
+            log.info("Duplicate webhook for payment {} ignored", data.getOrderCode());
+        } else {
+            startWorkers();
+        }
+        return Map.of("success", true);
+    }
+
+    /** Pick up stored calls left behind, by a retry delay or by another node that stopped */
+    @Scheduled(fixedDelayString = "${payment.webhook.poll-interval-ms:1000}")
+    public void drain() {
+        startWorkers();
+    }
+
+    private void startWorkers() {
+        while (true) {
+            int running = runningWorkers.get();
+            if (running >= workers) {
+                return;
+            }
+            if (runningWorkers.compareAndSet(running, running + 1)) {
+                try {
+                    taskExecutor.execute(this::work);
+                } catch (RuntimeException e) {
+                    runningWorkers.decrementAndGet();
+                    log.error("Failed to start webhook worker: {}", e.getMessage());
+                    return;
+                }
+            }
+        }
+    }
+
+    private void work() {
+        try {
+            while (processBatch() == batchSize) {
+                // A full batch means more calls are likely waiting
+            }
+        } catch (Exception e) {
+            log.error("Webhook worker stopped: {}", e.getMessage());
+        } finally {
+            runningWorkers.decrementAndGet();
+        }
+    }
+
+    /** Claim and apply one batch of stored calls
+     *
+     * @return Number of calls claimed
+     */
+    int processBatch() {
+        List<ClaimedEvent> claimed = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                claimed.addAll(claim(CLAIM_EVENTS, Timestamp.valueOf(LocalDateTime.now()), batchSize));
+                if (!claimed.isEmpty()) {
+                    apply(claimed);
+                }
+            });
+        } catch (RuntimeException e) {
+            if (claimed.isEmpty()) {
+                throw e;
+            }
+            // The batch rolled back as a whole, find the failing calls by applying them one by one
+            log.warn("Webhook batch of {} failed, applying one by one: {}", claimed.size(), e.getMessage());
+            claimed.forEach(this::processOne);
+        }
+        return claimed.size();
+    }
+
+    private void processOne(ClaimedEvent event) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // Skipped when another worker claimed it in the meantime
+                List<ClaimedEvent> mine = claim(CLAIM_EVENT, event.id());
+                if (!mine.isEmpty()) {
+                    apply(mine);
+                }
+            });
+        } catch (RuntimeException e) {
+            transactionTemplate.executeWithoutResult(status -> retryLater(event, e.getMessage()));
+        }
+    }
+
+    private List<ClaimedEvent> claim(String sql, Object... args) {
+        return jdbcTemplate.query(sql,
+                (rs, rowNum) -> new ClaimedEvent(rs.getLong("id"), rs.getLong("order_code"),
+                        rs.getString("status_code"), rs.getInt("attempts")),
+                args);
+    }
+
+    private void apply(List<ClaimedEvent> events) {
+        List<ClaimedEvent> known = new ArrayList<>();
+        List<PaymentStatusUpdate> updates = new ArrayList<>();
+        List<Object[]> completed = new ArrayList<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (ClaimedEvent event : events) {
+            try {
+                updates.add(new PaymentStatusUpdate(event.orderCode(), PaymentStatus.fromCode(event.statusCode())));
+                known.add(event);
+            } catch (IllegalArgumentException e) {
+                completed.add(new Object[]{WebhookEventStatus.IGNORED.name(), truncate(e.getMessage()), now, event.id()});
+            }
+        }
+        if (!updates.isEmpty()) {
+            List<PaymentUpdateOutcome> outcomes = paymentService.applyPaymentStatuses(updates);
+            for (int i = 0; i < known.size(); i++) {
+                ClaimedEvent event = known.get(i);
+                switch (outcomes.get(i)) {
+                    case APPLIED -> completed.add(
+                            new Object[]{WebhookEventStatus.PROCESSED.name(), null, now, event.id()});
+                    case ALREADY_SETTLED -> completed.add(new Object[]{WebhookEventStatus.IGNORED.name(),
+                            "Payment already settled", now, event.id()});
+                    // The payment is saved once PayOS returned its link, a fast webhook can arrive before that commit
+                    case NOT_FOUND -> retryLater(event, "Payment not found");
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate(COMPLETE_EVENT, completed);
+    }
+
+    private void retryLater(ClaimedEvent event, String error) {
+        int attempts = event.attempts() + 1;
+        WebhookEventStatus status = attempts >= maxAttempts ? WebhookEventStatus.FAILED : WebhookEventStatus.PENDING;
+        // Doubling delay, capped so a long outage still gets retried every few minutes
+        long delay = retryDelayMs << Math.min(attempts - 1, 8);
+        jdbcTemplate.update(RETRY_EVENT, status.name(), truncate(error),
+                Timestamp.valueOf(LocalDateTime.now().plusNanos(delay * 1_000_000)), event.id());
+        if (status == WebhookEventStatus.FAILED) {
+            log.error("Webhook for payment {} failed after {} attempts: {}", event.orderCode(), attempts, error);
+        }
+    }
+
+    private static String idempotencyKey(PaymentPayload payload) {
+        if (payload.getSignature() != null && !payload.getSignature().isBlank()) {
+            return payload.getSignature();
+        }
+        PaymentPayloadData data = payload.getData();
+        return data.getOrderCode() + ":" + data.getCode() + ":" + data.getReference();
+    }
+
+    private String toJson(PaymentPayload payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid webhook payload");
+        }
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
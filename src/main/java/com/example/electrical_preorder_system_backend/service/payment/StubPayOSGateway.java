@@ -0,0 +1,101 @@
+package com.example.electrical_preorder_system_backend.service.payment;
+
+import com.example.electrical_preorder_system_backend.exception.PaymentGatewayException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import vn.payos.type.CheckoutResponseData;
+import vn.payos.type.PaymentData;
+import vn.payos.type.PaymentLinkData;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory stand-in for PayOS, for local runs and tests without PayOS credentials.
+ * Links stay PENDING until cancelled, payments are completed by posting a webhook.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "payos.gateway.mode", havingValue = "stub")
+public class StubPayOSGateway implements IPayOSGateway {
+
+    private final String checkoutUrl;
+    private final long latencyMs;
+
+    private final ConcurrentHashMap<Long, PaymentLinkData> links = new ConcurrentHashMap<>();
+
+    public StubPayOSGateway(@Value("${payos.gateway.stub.checkout-url:http://localhost:8080/stub-checkout}") String checkoutUrl,
+                            @Value("${payos.gateway.stub.latency-ms:0}") long latencyMs) {
+        this.checkoutUrl = checkoutUrl;
+        this.latencyMs = latencyMs;
+    }
+
+    @Override
+    public CheckoutResponseData createPaymentLink(PaymentData paymentData) {
+        simulateLatency();
+        String linkId = UUID.randomUUID().toString().replace("-", "");
+        PaymentLinkData link = PaymentLinkData.builder()
+                .id(linkId)
+                .orderCode(paymentData.getOrderCode())
+                .amount(paymentData.getAmount())
+                .amountPaid(0)
+                .amountRemaining(paymentData.getAmount())
+                .status("PENDING")
+                .createdAt(LocalDateTime.now().toString())
+                .transactions(new ArrayList<>())
+                .build();
+        if (links.putIfAbsent(paymentData.getOrderCode(), link) != null) {
+            throw new PaymentGatewayException("Failed to create payment link: order code already exists", false);
+        }
+        log.info("Stub payment link {} created for order code {}", linkId, paymentData.getOrderCode());
+        return CheckoutResponseData.builder()
+                .orderCode(paymentData.getOrderCode())
+                .amount(paymentData.getAmount())
+                .description(paymentData.getDescription())
+                .currency("VND")
+                .paymentLinkId(linkId)
+                .status("PENDING")
+                .expiredAt(paymentData.getExpiredAt())
+                .checkoutUrl(checkoutUrl + "/" + linkId)
+                .qrCode(linkId)
+                .build();
+    }
+
+    @Override
+    public PaymentLinkData getPaymentLinkInformation(long orderCode) {
+        simulateLatency();
+        PaymentLinkData link = links.get(orderCode);
+        if (link == null) {
+            throw new PaymentGatewayException("Failed to get payment link information: payment link not found", false);
+        }
+        return link;
+    }
+
+    @Override
+    public PaymentLinkData cancelPaymentLink(long orderCode, String reason) {
+        PaymentLinkData link = getPaymentLinkInformation(orderCode);
+        synchronized (link) {
+            if ("PENDING".equals(link.getStatus())) {
+                link.setStatus("CANCELLED");
+                link.setCancellationReason(reason);
+                link.setCanceledAt(LocalDateTime.now().toString());
+            }
+        }
+        return link;
+    }
+
+    private void simulateLatency() {
+        if (latencyMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(latencyMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
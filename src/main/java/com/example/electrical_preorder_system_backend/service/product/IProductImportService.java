@@ -0,0 +1,9 @@
+package com.example.electrical_preorder_system_backend.service.product;
+
+import com.example.electrical_preorder_system_backend.dto.response.product.ProductImportResultDTO;
+import org.springframework.web.multipart.MultipartFile;
+
+public interface IProductImportService {
+
+    ProductImportResultDTO importProducts(MultipartFile file, String format);
+}
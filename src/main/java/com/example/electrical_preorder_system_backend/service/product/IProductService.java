@@ -17,6 +17,8 @@ public interface IProductService {
 
     Page<ProductDTO> getProducts(ProductFilterCriteria criteria, Pageable pageable);
 
+    List<ProductDTO> autocomplete(String query, int limit);
+
     Product addProduct(CreateProductRequest request, List<MultipartFile> files);
 
     Product updateProduct(UpdateProductRequest request, UUID id, List<MultipartFile> files);
@@ -27,8 +29,6 @@ public interface IProductService {
 
     ProductDTO convertToDto(Product product);
 
-    void clearProductCache();
-
     Product getProductBySlug(String slug);
 
     ProductDetailDTO getProductDetailWithCampaigns(String slug);
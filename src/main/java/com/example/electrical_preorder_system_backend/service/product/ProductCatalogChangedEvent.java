@@ -0,0 +1,18 @@
+package com.example.electrical_preorder_system_backend.service.product;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Published when products are added, edited or deleted, so copies of the catalog kept
+ * outside the database can be refreshed once the change is committed.
+ *
+ * @param productIds  ids of the changed products
+ */
+public record ProductCatalogChangedEvent(Collection<UUID> productIds) {
+
+    public static ProductCatalogChangedEvent of(UUID productId) {
+        return new ProductCatalogChangedEvent(List.of(productId));
+    }
+}
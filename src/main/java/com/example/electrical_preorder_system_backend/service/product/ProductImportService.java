@@ -0,0 +1,436 @@
+package com.example.electrical_preorder_system_backend.service.product;
+
+import com.example.electrical_preorder_system_backend.dto.response.product.ProductImportErrorDTO;
+import com.example.electrical_preorder_system_backend.dto.response.product.ProductImportResultDTO;
+import com.example.electrical_preorder_system_backend.service.cache.CacheTags;
+import com.example.electrical_preorder_system_backend.service.cache.ICacheTagService;
+import com.example.electrical_preorder_system_backend.util.CsvReader;
+import com.example.electrical_preorder_system_backend.util.SlugUtil;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Bulk product import from CSV or JSON. The file is read as a stream and its rows are validated and written
+ * one chunk at a time, each chunk in its own transaction: one query to find the product codes already taken,
+ * one to resolve the categories, one to allocate the slugs and one JDBC batch of inserts. Rows that fail are
+ * reported with their line and skipped, the others are kept even if a later chunk fails.
+ * Requested positions and cache invalidation are applied once, after the last chunk.
+ */
+@Slf4j
+@Service
+public class ProductImportService implements IProductImportService {
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_JSON = "json";
+
+    private static final int MAX_CATEGORY_NAME_LENGTH = 50;
+    // Length of the varchar product_code and name columns
+    private static final int MAX_TEXT_LENGTH = 255;
+    private static final List<String> REQUIRED_COLUMNS =
+            List.of("productcode", "name", "description", "quantity", "price", "category");
+
+    private static final String INSERT_PRODUCT = "INSERT INTO product (id, product_code, name, slug, quantity, " +
+            "description, price, status, is_deleted, search_text, category_id, version, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, 'AVAILABLE', false, ?, ?, 0, ?, ?)";
+    private static final String INSERT_CATEGORY = "INSERT INTO category (id, name, is_deleted, created_at, updated_at) " +
+            "VALUES (?, ?, false, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SlugAllocator slugAllocator;
+    private final ProductPositions productPositions;
+    private final ICacheTagService cacheTagService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    public ProductImportService(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                SlugAllocator slugAllocator,
+                                ProductPositions productPositions,
+                                ICacheTagService cacheTagService,
+                                ApplicationEventPublisher eventPublisher,
+                                ObjectMapper objectMapper,
+                                @Value("${product.import.batch-size:1000}") int batchSize,
+                                @Value("${product.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.slugAllocator = slugAllocator;
+        this.productPositions = productPositions;
+        this.cacheTagService = cacheTagService;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    private record ImportRow(int row, String productCode, String name, String description, int quantity,
+                             BigDecimal price, Integer place, String category) {
+    }
+
+    private record Placement(UUID productId, int place) {
+    }
+
+    private record ChunkResult(List<UUID> productIds, List<Placement> placements, Map<String, UUID> categories,
+                               int createdCategories, List<ProductImportErrorDTO> rejected) {
+    }
+
+    private static class ImportRun {
+        final ProductImportResultDTO result = new ProductImportResultDTO();
+        final List<ImportRow> chunk = new ArrayList<>();
+        final Set<String> seenCodes = new HashSet<>();
+        // Category ids by lower-case name, resolved by earlier chunks
+        final Map<String, UUID> categories = new HashMap<>();
+        final List<Placement> placements = new ArrayList<>();
+        final List<UUID> importedIds = new ArrayList<>();
+        int lastRow;
+    }
+
+    @Override
+    public ProductImportResultDTO importProducts(MultipartFile file, String format) {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("Import file is empty");
+        }
+        String resolvedFormat = resolveFormat(file, format);
+        long start = System.currentTimeMillis();
+        ImportRun run = new ImportRun();
+        try (InputStream input = file.getInputStream()) {
+            if (FORMAT_JSON.equals(resolvedFormat)) {
+                readJson(input, run);
+            } else {
+                readCsv(input, run);
+            }
+        } catch (IOException e) {
+            // The rows read so far are still imported
+            run.result.getErrors().add(new ProductImportErrorDTO(run.lastRow + 1, null,
+                    "Unreadable file, import stopped: " + e.getMessage()));
+        }
+        writeChunk(run);
+        finish(run);
+
+        ProductImportResultDTO result = run.result;
+        result.setDurationMs(System.currentTimeMillis() - start);
+        log.info("Imported {} of {} products in {} ms, {} rows failed", result.getImportedRows(),
+                result.getTotalRows(), result.getDurationMs(), result.getFailedRows());
+        return result;
+    }
+
+    private String resolveFormat(MultipartFile file, String format) {
+        if (format != null && !format.isBlank()) {
+            String requested = format.trim().toLowerCase(Locale.ROOT);
+            if (!requested.equals(FORMAT_CSV) && !requested.equals(FORMAT_JSON)) {
+                throw new IllegalArgumentException("Invalid import format: " + format);
+            }
+            return requested;
+        }
+        String fileName = file.getOriginalFilename() != null ? file.getOriginalFilename().toLowerCase(Locale.ROOT) : "";
+        String contentType = file.getContentType() != null ? file.getContentType() : "";
+        return fileName.endsWith(".json") || contentType.contains("json") ? FORMAT_JSON : FORMAT_CSV;
+    }
+
+    private void readCsv(InputStream input, ImportRun run) throws IOException {
+        CsvReader csv = new CsvReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        List<String> header = csv.readRecord();
+        if (header == null) {
+            throw new IllegalArgumentException("Import file is empty");
+        }
+        List<String> columns = header.stream().map(ProductImportService::column).toList();
+        List<String> missing = REQUIRED_COLUMNS.stream().filter(column -> !columns.contains(column)).toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Missing columns in the CSV header: " + missing);
+        }
+        List<String> record;
+        while ((record = csv.readRecord()) != null) {
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i < Math.min(columns.size(), record.size()); i++) {
+                values.put(columns.get(i), record.get(i));
+            }
+            run.lastRow = csv.getRecordLine();
+            accept(run, run.lastRow, values);
+        }
+    }
+
+    private void readJson(InputStream input, ImportRun run) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(input)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("A JSON import must be an array of products");
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                JsonNode node = objectMapper.readTree(parser);
+                Map<String, String> values = new HashMap<>();
+                node.fields().forEachRemaining(field -> {
+                    JsonNode value = field.getValue();
+                    // The category may be given as in CreateProductRequest, an object with a name
+                    if (value.isObject() && value.has("name")) {
+                        value = value.get("name");
+                    }
+                    values.put(column(field.getKey()), value.isNull() ? null : value.asText());
+                });
+                run.lastRow++;
+                accept(run, run.lastRow, values);
+            }
+        }
+    }
+
+    private void accept(ImportRun run, int row, Map<String, String> values) {
+        run.result.setTotalRows(run.result.getTotalRows() + 1);
+        ImportRow parsed;
+        try {
+            parsed = parse(row, values);
+        } catch (IllegalArgumentException e) {
+            fail(run, row, text(values, "productcode"), e.getMessage());
+            return;
+        }
+        if (!run.seenCodes.add(parsed.productCode())) {
+            fail(run, row, parsed.productCode(), "Duplicate product code in the file");
+            return;
+        }
+        run.chunk.add(parsed);
+        if (run.chunk.size() >= batchSize) {
+            writeChunk(run);
+        }
+    }
+
+    private static ImportRow parse(int row, Map<String, String> values) {
+        String productCode = required(values, "productcode");
+        String name = required(values, "name");
+        String description = required(values, "description");
+        String category = required(values, "category");
+        if (productCode.length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException("Product code must be at most " + MAX_TEXT_LENGTH + " characters");
+        }
+        if (name.length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException("Name must be at most " + MAX_TEXT_LENGTH + " characters");
+        }
+        if (category.length() > MAX_CATEGORY_NAME_LENGTH) {
+            throw new IllegalArgumentException("Category name must be at most " + MAX_CATEGORY_NAME_LENGTH + " characters");
+        }
+
+        int quantity;
+        BigDecimal price;
+        Integer place = null;
+        try {
+            quantity = Integer.parseInt(required(values, "quantity"));
+            price = new BigDecimal(required(values, "price"));
+            String position = text(values, "position");
+            if (position != null) {
+                place = Integer.parseInt(position);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Quantity, price and position must be numbers");
+        }
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Quantity must not be negative");
+        }
+        if (price.signum() <= 0) {
+            throw new IllegalArgumentException("Price must be positive");
+        }
+        if (place != null && place < 0) {
+            throw new IllegalArgumentException("Position must not be negative");
+        }
+        return new ImportRow(row, productCode, name, description, quantity, price, place, category);
+    }
+
+    private void writeChunk(ImportRun run) {
+        if (run.chunk.isEmpty()) {
+            return;
+        }
+        List<ImportRow> rows = List.copyOf(run.chunk);
+        run.chunk.clear();
+        ChunkResult written;
+        try {
+            written = transactionTemplate.execute(status -> insertChunk(rows, run.categories));
+        } catch (DataAccessException | TransactionException e) {
+            String reason = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            log.warn("Product import chunk of {} rows rejected: {}", rows.size(), reason);
+            rows.forEach(row -> fail(run, row.row(), row.productCode(), "Batch rejected by the database: " + reason));
+            return;
+        }
+        if (written == null) {
+            return;
+        }
+        run.categories.putAll(written.categories());
+        run.importedIds.addAll(written.productIds());
+        run.placements.addAll(written.placements());
+        run.result.setImportedRows(run.result.getImportedRows() + written.productIds().size());
+        run.result.setCreatedCategories(run.result.getCreatedCategories() + written.createdCategories());
+        written.rejected().forEach(error -> fail(run, error.getRow(), error.getProductCode(), error.getMessage()));
+    }
+
+    private ChunkResult insertChunk(List<ImportRow> rows, Map<String, UUID> knownCategories) {
+        Set<String> takenCodes = new HashSet<>();
+        jdbcTemplate.query(withArray("SELECT product_code FROM product WHERE product_code = ANY(?::text[])",
+                        rows.stream().map(ImportRow::productCode).toArray(String[]::new)),
+                rs -> {
+                    takenCodes.add(rs.getString(1));
+                });
+        List<ProductImportErrorDTO> rejected = new ArrayList<>();
+        List<ImportRow> accepted = new ArrayList<>();
+        for (ImportRow row : rows) {
+            if (takenCodes.contains(row.productCode())) {
+                rejected.add(new ProductImportErrorDTO(row.row(), row.productCode(),
+                        "Product code '" + row.productCode() + "' already exists."));
+            } else {
+                accepted.add(row);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return new ChunkResult(List.of(), List.of(), Map.of(), 0, rejected);
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Map<String, UUID> resolved = new HashMap<>();
+        int createdCategories = resolveCategories(accepted, knownCategories, resolved, now);
+
+        Map<String, Integer> slugCounts = new LinkedHashMap<>();
+        accepted.forEach(row -> slugCounts.merge(SlugUtil.generateSlug(row.name()), 1, Integer::sum));
+        Map<String, Iterator<String>> slugs = new HashMap<>();
+        slugAllocator.allocateAll(slugCounts).forEach((base, allocated) -> slugs.put(base, allocated.iterator()));
+
+        List<UUID> ids = new ArrayList<>(accepted.size());
+        List<Placement> placements = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>(accepted.size());
+        for (ImportRow row : accepted) {
+            UUID id = UUID.randomUUID();
+            String category = row.category().toLowerCase(Locale.ROOT);
+            UUID categoryId = knownCategories.containsKey(category) ? knownCategories.get(category) : resolved.get(category);
+            inserts.add(new Object[]{id, row.productCode(), row.name(), slugs.get(SlugUtil.generateSlug(row.name())).next(),
+                    row.quantity(), row.description(), row.price(),
+                    SlugUtil.searchText(row.name(), row.productCode(), row.description()), categoryId, now, now});
+            ids.add(id);
+            if (row.place() != null) {
+                placements.add(new Placement(id, row.place()));
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_PRODUCT, inserts);
+        return new ChunkResult(ids, placements, resolved, createdCategories, rejected);
+    }
+
+    /**
+     * Find the categories of a chunk by name, ignoring case, and create the missing ones
+     *
+     * @return Number of categories created
+     */
+    private int resolveCategories(List<ImportRow> rows, Map<String, UUID> known, Map<String, UUID> resolved,
+                                  Timestamp now) {
+        Map<String, String> unknown = new LinkedHashMap<>();
+        rows.forEach(row -> {
+            String key = row.category().toLowerCase(Locale.ROOT);
+            if (!known.containsKey(key)) {
+                unknown.putIfAbsent(key, row.category());
+            }
+        });
+        if (unknown.isEmpty()) {
+            return 0;
+        }
+        // Categories restored after a deletion keep their row, a live one is preferred over a deleted one
+        jdbcTemplate.query(withArray("SELECT DISTINCT ON (lower(name)) lower(name), id FROM category " +
+                        "WHERE lower(name) = ANY(?::text[]) ORDER BY lower(name), is_deleted, created_at",
+                        unknown.keySet().toArray(String[]::new)),
+                rs -> {
+                    resolved.put(rs.getString(1), rs.getObject(2, UUID.class));
+                });
+        List<Object[]> inserts = new ArrayList<>();
+        unknown.forEach((key, name) -> {
+            if (!resolved.containsKey(key)) {
+                UUID id = UUID.randomUUID();
+                resolved.put(key, id);
+                inserts.add(new Object[]{id, name, now, now});
+            }
+        });
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_CATEGORY, inserts);
+        }
+        return inserts.size();
+    }
+
+    private void finish(ImportRun run) {
+        try {
+            productPositions.placeAll(run.placements.stream().map(Placement::productId).toList(),
+                    run.placements.stream().map(Placement::place).toList());
+        } catch (DataAccessException e) {
+            log.warn("Failed to position {} imported products: {}", run.placements.size(), e.getMessage());
+        }
+        if (run.importedIds.isEmpty()) {
+            return;
+        }
+        List<String> tags = new ArrayList<>();
+        tags.add(CacheTags.PRODUCT_LIST);
+        if (run.result.getCreatedCategories() > 0) {
+            tags.add(CacheTags.CATEGORY_LIST);
+        }
+        cacheTagService.invalidate(tags);
+        eventPublisher.publishEvent(new ProductCatalogChangedEvent(run.importedIds));
+    }
+
+    private void fail(ImportRun run, int row, String productCode, String message) {
+        ProductImportResultDTO result = run.result;
+        result.setFailedRows(result.getFailedRows() + 1);
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(new ProductImportErrorDTO(row, productCode, message));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+
+    private static PreparedStatementCreator withArray(String sql, String[] values) {
+        return con -> {
+            var statement = con.prepareStatement(sql);
+            statement.setArray(1, con.createArrayOf("text", values));
+            return statement;
+        };
+    }
+
+    private static String column(String name) {
+        return name.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+    }
+
+    private static String text(Map<String, String> values, String column) {
+        String value = values.get(column);
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static String required(Map<String, String> values, String column) {
+        String value = text(values, column);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing " + column);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.electrical_preorder_system_backend.service.product;
+
+import com.example.electrical_preorder_system_backend.service.cache.CacheTags;
+import com.example.electrical_preorder_system_backend.service.cache.ICacheTagService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Array;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Sparse product positions. Positioned products are numbered in steps of a gap, so a product moved to
+ * a place of the list gets a position between its two new neighbours and is the only row written.
+ * When two neighbours have no room left between them, every positioned product is renumbered in one
+ * set-based UPDATE, which keeps their order. The same renumbering runs in the background once gaps
+ * get small, so moves rarely have to do it themselves.
+ * A position of 0 still means the product has no place and is listed after the positioned ones.
+ */
+@Slf4j
+@Component
+public class ProductPositions {
+
+    private static final String ACTIVE_ORDER = "FROM product WHERE is_deleted = false AND id <> ? " +
+            "ORDER BY CASE WHEN position = 0 OR position IS NULL THEN 1 ELSE 0 END, position ASC, created_at ASC ";
+
+    // Products given a place go after as many positioned products as the places before theirs leave room for,
+    // the others keep their order, and the merged list is renumbered in steps of the gap
+    private static final String PLACE_ALL = "WITH requested AS (" +
+            "SELECT id, place, row_number() OVER (ORDER BY place, ord) AS k " +
+            "FROM unnest(?::uuid[], ?::int[]) WITH ORDINALITY AS r(id, place, ord)), " +
+            "placed AS (" +
+            "SELECT id, GREATEST(MAX(GREATEST(place, 1) - k) OVER (ORDER BY k), 0) AS after_rank, 1 AS kind, k " +
+            "FROM requested), " +
+            "others AS (" +
+            "SELECT id, row_number() OVER (ORDER BY position ASC, created_at ASC) AS after_rank, 0 AS kind, 0 AS k " +
+            "FROM product WHERE is_deleted = false AND position > 0 AND id <> ALL(?::uuid[])), " +
+            "merged AS (" +
+            "SELECT id, row_number() OVER (ORDER BY after_rank, kind, k) AS place " +
+            "FROM (SELECT * FROM placed UNION ALL SELECT * FROM others) m) " +
+            "UPDATE product p SET position = merged.place * ? FROM merged " +
+            "WHERE p.id = merged.id AND p.position IS DISTINCT FROM merged.place * ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ICacheTagService cacheTagService;
+    private final int gap;
+    private final int minGap;
+
+    public ProductPositions(JdbcTemplate jdbcTemplate,
+                            ICacheTagService cacheTagService,
+                            @Value("${product.position.gap:1024}") int gap,
+                            @Value("${product.position.rebalance-min-gap:8}") int minGap) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheTagService = cacheTagService;
+        this.gap = gap;
+        this.minGap = minGap;
+    }
+
+    /** Sparse position placing a product at a place of the list, between the products around that place
+     *
+     * @param productId Product to place, null for a product not saved yet
+     * @param currentPosition Current position of the product, kept when it already sits at that place
+     * @param place Place in the list, 1 for the first; clamped to the list
+     * @return Position to store
+     */
+    public int positionFor(UUID productId, Integer currentPosition, int place) {
+        UUID excluded = productId != null ? productId : new UUID(0, 0);
+        for (int attempt = 0; ; attempt++) {
+            int target = Math.max(place, 1);
+            // The positions of the products at place - 1 and place, once the product itself is left out
+            List<Integer> neighbours = jdbcTemplate.queryForList(
+                    "SELECT COALESCE(position, 0) " + ACTIVE_ORDER + "OFFSET ? LIMIT ?",
+                    Integer.class, excluded, Math.max(target - 2, 0), target == 1 ? 1 : 2);
+            int previous = 0;
+            Integer next = null;
+            if (target == 1) {
+                next = neighbours.isEmpty() ? null : neighbours.get(0);
+            } else if (!neighbours.isEmpty()) {
+                previous = neighbours.get(0);
+                next = neighbours.size() > 1 ? neighbours.get(1) : null;
+            }
+            if (previous == 0 && target > 1) {
+                // The place is past the positioned products, append after the last of them
+                previous = lastPosition(excluded);
+                next = null;
+            }
+            if (next != null && next == 0) {
+                next = null;
+            }
+
+            if (currentPosition != null && currentPosition > previous && (next == null || currentPosition < next)) {
+                return currentPosition;
+            }
+            if (next == null && previous <= Integer.MAX_VALUE - gap) {
+                return previous + gap;
+            }
+            if (next != null && next - previous > 1) {
+                return previous + (next - previous) / 2;
+            }
+            if (attempt > 0) {
+                throw new IllegalStateException("No room left to position product " + productId);
+            }
+            rebalance();
+        }
+    }
+
+    /** Put several products at places of the list in one statement, as if they were placed one by one
+     * from the lowest place. Every positioned product is renumbered in steps of the gap on the way,
+     * the caller invalidates the cached lists
+     *
+     * @param productIds Products to place
+     * @param places Place of each product, 1 for the first; clamped to the list
+     * @return Number of products whose position changed
+     */
+    public int placeAll(List<UUID> productIds, List<Integer> places) {
+        if (productIds.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(con -> {
+            Array ids = con.createArrayOf("uuid", productIds.toArray());
+            var statement = con.prepareStatement(PLACE_ALL);
+            statement.setArray(1, ids);
+            statement.setArray(2, con.createArrayOf("integer", places.toArray()));
+            statement.setArray(3, ids);
+            statement.setInt(4, gap);
+            statement.setInt(5, gap);
+            return statement;
+        });
+    }
+
+    /** Renumber the positioned products in steps of the gap, keeping their order
+     *
+     * @return Number of products renumbered
+     */
+    public int rebalance() {
+        int updated = jdbcTemplate.update("UPDATE product p SET position = ranked.place * ? " +
+                "FROM (SELECT id, row_number() OVER (ORDER BY position ASC, created_at ASC) AS place " +
+                "FROM product WHERE is_deleted = false AND position > 0) ranked " +
+                "WHERE p.id = ranked.id AND p.position <> ranked.place * ?", gap, gap);
+        if (updated > 0) {
+            // Order is unchanged, only the position values shown in cached lists are outdated
+            cacheTagService.invalidate(List.of(CacheTags.PRODUCT_LIST));
+            log.info("Renumbered the positions of {} products", updated);
+        }
+        return updated;
+    }
+
+    @Scheduled(fixedDelayString = "${product.position.rebalance-interval-ms:600000}",
+            initialDelayString = "${product.position.rebalance-interval-ms:600000}")
+    public void rebalanceIfCrowded() {
+        try {
+            Boolean crowded = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM (" +
+                    "SELECT position - lag(position) OVER (ORDER BY position ASC, created_at ASC) AS spacing " +
+                    "FROM product WHERE is_deleted = false AND position > 0) spacings " +
+                    "WHERE spacing < ?) OR COALESCE((SELECT max(position) FROM product " +
+                    "WHERE is_deleted = false), 0) > ?", Boolean.class, minGap, Integer.MAX_VALUE - gap);
+            if (Boolean.TRUE.equals(crowded)) {
+                rebalance();
+            }
+        } catch (Exception e) {
+            log.error("Failed to rebalance product positions: {}", e.getMessage());
+        }
+    }
+
+    private int lastPosition(UUID excluded) {
+        Integer last = jdbcTemplate.queryForObject("SELECT COALESCE(max(position), 0) FROM product " +
+                "WHERE is_deleted = false AND id <> ?", Integer.class, excluded);
+        return last != null ? last : 0;
+    }
+}
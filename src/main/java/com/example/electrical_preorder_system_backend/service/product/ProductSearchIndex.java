@@ -0,0 +1,361 @@
+package com.example.electrical_preorder_system_backend.service.product;
+
+import com.example.electrical_preorder_system_backend.dto.response.product.ProductDTO;
+import com.example.electrical_preorder_system_backend.entity.ImageProduct;
+import com.example.electrical_preorder_system_backend.entity.Product;
+import com.example.electrical_preorder_system_backend.mapper.ProductMapper;
+import com.example.electrical_preorder_system_backend.repository.ImageProductRepository;
+import com.example.electrical_preorder_system_backend.repository.ProductRepository;
+import com.example.electrical_preorder_system_backend.repository.specification.ProductSpecifications;
+import com.example.electrical_preorder_system_backend.service.inventory.ProductStockChangedEvent;
+import com.example.electrical_preorder_system_backend.util.SlugUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-process inverted index over the non-deleted products, for the storefront search box. Name, product code,
+ * category and description are split into accent-folded terms, each term pointing at a sorted array of
+ * document numbers. The last word of a query matches as a prefix, and words of four letters or more also
+ * match terms one typo away, found through the single-character deletions of every term.
+ * The index is built at startup and updated in the background after each committed product change,
+ * stock changes included, answering from memory with the mapped ProductDTOs it keeps.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "product.search-index.enabled", havingValue = "true")
+public class ProductSearchIndex {
+
+    private static final int LOAD_BATCH_SIZE = 500;
+    private static final int REFRESH_BATCH_SIZE = 1000;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int EXACT_SCORE = 3;
+    private static final int PREFIX_SCORE = 2;
+    private static final int FUZZY_SCORE = 1;
+
+    private static final Comparator<ProductDTO> BY_POSITION = Comparator
+            .comparing(ProductDTO::getSortKey, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(ProductDTO::getName, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final ProductRepository productRepository;
+    private final ImageProductRepository imageProductRepository;
+    private final TaskExecutor taskExecutor;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<UUID, Integer> docNumbers = new HashMap<>();
+    private final List<IndexedProduct> docs = new ArrayList<>();
+    private final Deque<Integer> freeDocNumbers = new ArrayDeque<>();
+    private final TreeMap<String, int[]> postings = new TreeMap<>();
+    private final Map<String, Set<String>> deletions = new HashMap<>();
+    private final Set<UUID> pendingRefresh = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile boolean ready;
+
+    private record IndexedProduct(ProductDTO product, Set<String> terms) {
+    }
+
+    public ProductSearchIndex(ProductRepository productRepository,
+                              ImageProductRepository imageProductRepository,
+                              @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
+        this.productRepository = productRepository;
+        this.imageProductRepository = imageProductRepository;
+        this.taskExecutor = taskExecutor;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long start = System.currentTimeMillis();
+        int indexed = 0;
+        try {
+            Page<Product> page;
+            int pageNumber = 0;
+            do {
+                page = productRepository.findAll(ProductSpecifications.isNotDeleted(),
+                        PageRequest.of(pageNumber++, LOAD_BATCH_SIZE, Sort.by("id")));
+                index(page.getContent());
+                indexed += page.getNumberOfElements();
+            } while (page.hasNext());
+            ready = true;
+            log.info("Indexed {} products for search in {} ms", indexed, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Failed to build the product search index: {}", e.getMessage());
+        }
+    }
+
+    /** Queue the changed products and leave the committing request, a single background drain reloads them */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(ProductCatalogChangedEvent event) {
+        pendingRefresh.addAll(event.productIds());
+        startRefresh();
+    }
+
+    /** Queue products whose stock was written, so the quantities the index answers with follow orders */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(ProductStockChangedEvent event) {
+        pendingRefresh.addAll(event.productIds());
+        startRefresh();
+    }
+
+    private void startRefresh() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            taskExecutor.execute(this::drainPendingRefresh);
+        } catch (RuntimeException e) {
+            refreshing.set(false);
+            log.error("Failed to start the product search index refresh: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reload queued products in batches, bulk imports report their whole file at once. One drain at a time,
+     * so a slow reload of an older state never overwrites a newer one
+     */
+    private void drainPendingRefresh() {
+        try {
+            while (!pendingRefresh.isEmpty()) {
+                List<UUID> ids = new ArrayList<>(REFRESH_BATCH_SIZE);
+                Iterator<UUID> pending = pendingRefresh.iterator();
+                while (pending.hasNext() && ids.size() < REFRESH_BATCH_SIZE) {
+                    ids.add(pending.next());
+                    pending.remove();
+                }
+                refresh(ids);
+            }
+        } finally {
+            refreshing.set(false);
+        }
+        // Changes queued after the last check and before the flag was cleared
+        if (!pendingRefresh.isEmpty()) {
+            startRefresh();
+        }
+    }
+
+    private void refresh(List<UUID> ids) {
+        try {
+            List<Product> products = productRepository.findByIdIn(ids);
+            Set<UUID> found = products.stream().map(Product::getId).collect(Collectors.toSet());
+            List<Product> active = products.stream().filter(product -> !product.isDeleted()).toList();
+
+            lock.writeLock().lock();
+            try {
+                products.stream().filter(Product::isDeleted).forEach(product -> remove(product.getId()));
+                ids.stream().filter(id -> !found.contains(id)).forEach(this::remove);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            index(active);
+        } catch (Exception e) {
+            log.error("Failed to update the product search index for {} products: {}", ids.size(), e.getMessage());
+        }
+    }
+
+    /** Products matching every word of a query, best matches first
+     *
+     * @param query Text typed in the search box
+     * @param limit Maximum number of products
+     * @return Matching products, empty when the query has no letter or digit
+     */
+    public List<ProductDTO> search(String query, int limit) {
+        String[] tokens = tokenize(query).toArray(String[]::new);
+        if (tokens.length == 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Map<Integer, Integer> scores = null;
+            for (int i = 0; i < tokens.length; i++) {
+                Map<Integer, Integer> matches = match(tokens[i], i == tokens.length - 1);
+                if (scores == null) {
+                    scores = matches;
+                } else {
+                    scores.keySet().retainAll(matches.keySet());
+                    scores.replaceAll((doc, score) -> score + matches.get(doc));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+            Comparator<Map.Entry<Integer, Integer>> byScore = Map.Entry.comparingByValue(Comparator.reverseOrder());
+            return scores.entrySet().stream()
+                    .sorted(byScore.thenComparing(entry -> docs.get(entry.getKey()).product(), BY_POSITION))
+                    .limit(limit)
+                    .map(entry -> docs.get(entry.getKey()).product())
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Integer, Integer> match(String token, boolean prefix) {
+        Map<Integer, Integer> scores = new HashMap<>();
+        addScores(scores, postings.get(token), EXACT_SCORE);
+        if (prefix) {
+            postings.subMap(token, false, token + Character.MAX_VALUE, false).values()
+                    .forEach(docNumbers -> addScores(scores, docNumbers, PREFIX_SCORE));
+        }
+        if (token.length() >= MIN_FUZZY_LENGTH) {
+            similarTerms(token).forEach(term -> addScores(scores, postings.get(term), FUZZY_SCORE));
+        }
+        return scores;
+    }
+
+    private static void addScores(Map<Integer, Integer> scores, int[] docNumbers, int score) {
+        if (docNumbers == null) {
+            return;
+        }
+        for (int doc : docNumbers) {
+            scores.merge(doc, score, Math::max);
+        }
+    }
+
+    /**
+     * Terms one insertion, deletion or substitution away from a token: terms equal to the token with one
+     * character removed, terms which give the token once one of their characters is removed, and terms
+     * sharing a deletion with the token
+     */
+    private Set<String> similarTerms(String token) {
+        Set<String> terms = new HashSet<>(deletions.getOrDefault(token, Set.of()));
+        for (String deleted : deletionsOf(token)) {
+            if (postings.containsKey(deleted)) {
+                terms.add(deleted);
+            }
+            terms.addAll(deletions.getOrDefault(deleted, Set.of()));
+        }
+        terms.remove(token);
+        return terms;
+    }
+
+    private void index(List<Product> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        Map<UUID, List<ImageProduct>> images = imageProductRepository.findActiveByProductIds(
+                        products.stream().map(Product::getId).toList())
+                .stream()
+                .collect(Collectors.groupingBy(image -> image.getProduct().getId()));
+
+        lock.writeLock().lock();
+        try {
+            for (Product product : products) {
+                remove(product.getId());
+                ProductDTO dto = ProductMapper.toProductDTO(product, images.getOrDefault(product.getId(), List.of()));
+                Set<String> terms = tokenize(dto.getName(), dto.getProductCode(),
+                        dto.getCategory() != null ? dto.getCategory().getName() : null, dto.getDescription());
+                int doc = freeDocNumbers.isEmpty() ? docs.size() : freeDocNumbers.pop();
+                if (doc == docs.size()) {
+                    docs.add(null);
+                }
+                docs.set(doc, new IndexedProduct(dto, terms));
+                docNumbers.put(product.getId(), doc);
+                terms.forEach(term -> addPosting(term, doc));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(UUID productId) {
+        Integer doc = docNumbers.remove(productId);
+        if (doc == null) {
+            return;
+        }
+        docs.get(doc).terms().forEach(term -> removePosting(term, doc));
+        docs.set(doc, null);
+        freeDocNumbers.push(doc);
+    }
+
+    private void addPosting(String term, int doc) {
+        int[] current = postings.get(term);
+        if (current == null) {
+            postings.put(term, new int[]{doc});
+            if (term.length() >= MIN_FUZZY_LENGTH) {
+                deletionsOf(term).forEach(deleted -> deletions.computeIfAbsent(deleted, key -> new HashSet<>()).add(term));
+            }
+            return;
+        }
+        int at = Arrays.binarySearch(current, doc);
+        if (at >= 0) {
+            return;
+        }
+        int insertAt = -at - 1;
+        int[] updated = new int[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, insertAt);
+        updated[insertAt] = doc;
+        System.arraycopy(current, insertAt, updated, insertAt + 1, current.length - insertAt);
+        postings.put(term, updated);
+    }
+
+    private void removePosting(String term, int doc) {
+        int[] current = postings.get(term);
+        int at = current == null ? -1 : Arrays.binarySearch(current, doc);
+        if (at < 0) {
+            return;
+        }
+        if (current.length == 1) {
+            postings.remove(term);
+            for (String deleted : deletionsOf(term)) {
+                Set<String> terms = deletions.get(deleted);
+                if (terms != null && terms.remove(term) && terms.isEmpty()) {
+                    deletions.remove(deleted);
+                }
+            }
+            return;
+        }
+        int[] updated = new int[current.length - 1];
+        System.arraycopy(current, 0, updated, 0, at);
+        System.arraycopy(current, at + 1, updated, at, current.length - at - 1);
+        postings.put(term, updated);
+    }
+
+    private static Set<String> deletionsOf(String term) {
+        Set<String> variants = new HashSet<>();
+        for (int i = 0; i < term.length(); i++) {
+            variants.add(term.substring(0, i) + term.substring(i + 1));
+        }
+        return variants;
+    }
+
+    private static Set<String> tokenize(String... texts) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String text : texts) {
+            String normalized = SlugUtil.normalize(text);
+            if (!normalized.isEmpty()) {
+                terms.addAll(Arrays.asList(normalized.split(" ")));
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.electrical_preorder_system_backend.service.product;
+
+import com.example.electrical_preorder_system_backend.util.SlugUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Creates the product search indexes, which Hibernate cannot declare: a GIN index on the tsvector of
+ * product.search_text for word matches and a trigram GIN index for substring matches. Rows saved before
+ * the search_text column existed are filled first. Every step is idempotent and runs at each startup.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductSearchIndexInitializer {
+
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            backfillSearchText();
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_product_search_tsv ON \"product\" " +
+                    "USING GIN (to_tsvector('simple', coalesce(search_text, '')))");
+        } catch (Exception e) {
+            log.error("Failed to create the product full-text index: {}", e.getMessage());
+            return;
+        }
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_product_search_trgm ON \"product\" " +
+                    "USING GIN (search_text gin_trgm_ops)");
+        } catch (Exception e) {
+            // Substring matches still work without it, through a sequential scan
+            log.warn("Trigram index on product search text not created: {}", e.getMessage());
+        }
+    }
+
+    private void backfillSearchText() {
+        int filled = 0;
+        while (true) {
+            List<Object[]> rows = jdbcTemplate.query(
+                    "SELECT id, name, product_code, description FROM \"product\" WHERE search_text IS NULL LIMIT ?",
+                    (rs, rowNum) -> new Object[]{
+                            rs.getObject("id", UUID.class),
+                            SlugUtil.searchText(rs.getString("name"), rs.getString("product_code"),
+                                    rs.getString("description"))},
+                    BACKFILL_BATCH_SIZE);
+            if (rows.isEmpty()) {
+                break;
+            }
+            jdbcTemplate.batchUpdate("UPDATE \"product\" SET search_text = ? WHERE id = ?",
+                    rows.stream().map(row -> new Object[]{row[1], row[0]}).toList());
+            filled += rows.size();
+        }
+        if (filled > 0) {
+            log.info("Filled search text of {} products", filled);
+        }
+    }
+}
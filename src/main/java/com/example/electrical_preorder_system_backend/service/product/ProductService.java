@@ -20,27 +20,38 @@ import com.example.electrical_preorder_system_backend.exception.AlreadyExistsExc
 import com.example.electrical_preorder_system_backend.exception.ResourceNotFoundException;
 import com.example.electrical_preorder_system_backend.repository.CampaignRepository;
 import com.example.electrical_preorder_system_backend.repository.CategoryRepository;
+import com.example.electrical_preorder_system_backend.repository.ImageProductRepository;
 import com.example.electrical_preorder_system_backend.repository.OrderRepository;
 import com.example.electrical_preorder_system_backend.repository.ProductRepository;
 import com.example.electrical_preorder_system_backend.repository.specification.ProductSpecifications;
+import com.example.electrical_preorder_system_backend.service.cache.CacheTags;
+import com.example.electrical_preorder_system_backend.service.cache.ICacheTagService;
+import com.example.electrical_preorder_system_backend.service.cache.QueryFingerprinter;
+import com.example.electrical_preorder_system_backend.service.cache.QueryFingerprinter.QueryFingerprint;
+import com.example.electrical_preorder_system_backend.service.cache.SingleFlightCache;
 import com.example.electrical_preorder_system_backend.service.campaign_stage.ICampaignStageService;
 import com.example.electrical_preorder_system_backend.service.cloudinary.CloudinaryService;
+import com.example.electrical_preorder_system_backend.service.inventory.IInventoryReservationService;
 import com.example.electrical_preorder_system_backend.util.SlugUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -50,29 +61,59 @@ public class ProductService implements IProductService {
 
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
+    private final ImageProductRepository imageProductRepository;
     private final CampaignRepository campaignRepository;
     private final OrderRepository orderRepository;
     private final CloudinaryService cloudinaryService;
     private final ICampaignStageService campaignStageService;
-    private final RedisTemplate<String, Object> redisTemplate;
+    private final IInventoryReservationService inventoryReservationService;
+    private final ICacheTagService cacheTagService;
+    private final QueryFingerprinter queryFingerprinter;
+    private final SingleFlightCache singleFlightCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<ProductSearchIndex> searchIndex;
+    private final ProductPositions productPositions;
+    private final SlugAllocator slugAllocator;
+
+    private static final Duration PRODUCT_PAGE_TTL = Duration.ofHours(1);
+    private static final Duration PRODUCT_DETAIL_TTL = Duration.ofMinutes(60);
+    private static final int MAX_SLUG_ATTEMPTS = 3;
 
     @Override
     public Page<ProductDTO> getProducts(ProductFilterCriteria criteria, Pageable pageable) {
-        String cacheKey = generateCacheKey(criteria, pageable);
-
-        Page<ProductDTO> cachedResult = getCachedProductPage(cacheKey);
-        if (cachedResult != null) {
-            return cachedResult;
+        ProductFilterCriteria normalized = queryFingerprinter.normalize(criteria);
+        QueryFingerprint fingerprint = queryFingerprinter.fingerprint(normalized, pageable);
+
+        AtomicBoolean loaded = new AtomicBoolean();
+        CachedProductPage page = singleFlightCache.get(fingerprint.key(), CachedProductPage.class, PRODUCT_PAGE_TTL,
+                () -> {
+                    loaded.set(true);
+                    return CachedProductPage.from(findProducts(normalized, pageable));
+                },
+                this::productPageTags);
+        if (loaded.get()) {
+            queryFingerprinter.recordMiss(fingerprint);
+        } else {
+            queryFingerprinter.recordHit(fingerprint);
         }
+        return page.toPage();
+    }
 
+    private Page<ProductDTO> findProducts(ProductFilterCriteria criteria, Pageable pageable) {
         Specification<Product> spec = Specification.where(ProductSpecifications.isNotDeleted());
 
-        if (criteria.getCategory() != null && !criteria.getCategory().isBlank()) {
-            spec = spec.and(ProductSpecifications.hasCategory(criteria.getCategory().trim()));
+        if (criteria.getCategory() != null) {
+            spec = spec.and(ProductSpecifications.hasCategory(criteria.getCategory()));
         }
 
-        if (criteria.getQuery() != null && !criteria.getQuery().isBlank()) {
-            spec = spec.and(ProductSpecifications.matchesQuery(criteria.getQuery().trim()));
+        Specification<Product> textMatch = criteria.getQuery() != null
+                ? ProductSpecifications.matchesQuery(criteria.getQuery())
+                : null;
+        if (textMatch != null) {
+            spec = spec.and(textMatch);
+        } else if (pageable.getSort().isUnsorted() && pageable.isPaged()) {
+            // Relevance was asked for without anything to rank on
+            pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("position"));
         }
 
         if (criteria.getMinPrice() != null) {
@@ -83,68 +124,46 @@ public class ProductService implements IProductService {
             spec = spec.and(ProductSpecifications.priceLessThanOrEqual(criteria.getMaxPrice()));
         }
 
-        Page<ProductDTO> result = productRepository.findAll(spec, pageable)
-                .map(this::convertToDto);
-
-        cacheProductPage(cacheKey, result);
-
-        return result;
-    }
-
-    private String generateCacheKey(ProductFilterCriteria criteria, Pageable pageable) {
-        StringBuilder sb = new StringBuilder("products-filtered-");
-        sb.append(criteria.hashCode())
-                .append('-')
-                .append(pageable.getPageNumber())
-                .append('-')
-                .append(pageable.getPageSize())
-                .append('-')
-                .append(pageable.getSort());
-        return sb.toString();
+        return toDtoPage(productRepository.findAll(spec, pageable));
     }
 
-    private void cacheProductPage(String key, Page<ProductDTO> productPage) {
-        try {
-            CachedProductPage cachedPage = CachedProductPage.from(productPage);
-            redisTemplate.opsForValue().set(key, cachedPage, 1, TimeUnit.HOURS);
-            log.debug("Successfully cached product page with key: {}", key);
-        } catch (Exception ex) {
-            log.error("Failed to cache product page: {}", ex.getMessage());
+    /**
+     * Map a page of products with their images loaded in one query for the whole page,
+     * instead of initializing the image collection of each product
+     */
+    private Page<ProductDTO> toDtoPage(Page<Product> products) {
+        if (products.isEmpty()) {
+            return products.map(product -> convertToDto(product, List.of()));
         }
+        List<UUID> productIds = products.map(Product::getId).toList();
+        Map<UUID, List<ImageProduct>> imagesByProduct = imageProductRepository.findActiveByProductIds(productIds)
+                .stream()
+                .collect(Collectors.groupingBy(image -> image.getProduct().getId()));
+        return products.map(product -> convertToDto(product, imagesByProduct.getOrDefault(product.getId(), List.of())));
     }
 
-    private Page<ProductDTO> getCachedProductPage(String key) {
-        try {
-            Object cachedObject = redisTemplate.opsForValue().get(key);
-            if (cachedObject instanceof CachedProductPage) {
-                log.debug("Cache hit for key: {}", key);
-                return ((CachedProductPage) cachedObject).toPage();
+    private List<String> productPageTags(CachedProductPage page) {
+        List<String> tags = new ArrayList<>();
+        tags.add(CacheTags.PRODUCT_LIST);
+        page.getContent().forEach(product -> {
+            tags.add(CacheTags.product(product.getId()));
+            if (product.getCategory() != null) {
+                tags.add(CacheTags.category(product.getCategory().getId()));
             }
-            log.debug("Cache miss for key: {}", key);
-        } catch (Exception ex) {
-            log.error("Error retrieving cached product page: {}", ex.getMessage());
-        }
-        return null;
+        });
+        return tags;
     }
 
     @Override
-    @CacheEvict(value = {"products"}, allEntries = true)
-    public void clearProductCache() {
-        try {
-            Set<String> keys = redisTemplate.keys("products-filtered-*");
-            if (!keys.isEmpty()) {
-                redisTemplate.delete(keys);
-                log.debug("Cleared {} filtered product cache entries", keys.size());
-            }
-
-            Set<String> detailKeys = redisTemplate.keys("product-detail-*");
-            if (!detailKeys.isEmpty()) {
-                redisTemplate.delete(detailKeys);
-                log.debug("Cleared {} product detail cache entries", detailKeys.size());
-            }
-        } catch (Exception ex) {
-            log.error("Error clearing product cache: {}", ex.getMessage());
+    public List<ProductDTO> autocomplete(String query, int limit) {
+        ProductSearchIndex index = searchIndex.getIfAvailable();
+        if (index != null && index.isReady()) {
+            return index.search(query, limit);
         }
+        // Without the in-memory index, fall back to the database search ranked by relevance
+        ProductFilterCriteria criteria = new ProductFilterCriteria();
+        criteria.setQuery(query);
+        return getProducts(criteria, PageRequest.of(0, limit)).getContent();
     }
 
     @Override
@@ -157,8 +176,12 @@ public class ProductService implements IProductService {
     }
 
     @Override
-    @Cacheable(value = "products", key = "'product-detail-' + #slug")
     public ProductDetailDTO getProductDetailWithCampaigns(String slug) {
+        return singleFlightCache.get(CacheTags.cacheKey("products", "product-detail-" + slug), ProductDetailDTO.class,
+                PRODUCT_DETAIL_TTL, () -> loadProductDetail(slug), this::productDetailTags);
+    }
+
+    private ProductDetailDTO loadProductDetail(String slug) {
         log.info("Fetching product detail with campaigns for slug: {}", slug);
 
         Product product = getProductBySlug(slug);
@@ -204,8 +227,18 @@ public class ProductService implements IProductService {
         return detailDTO;
     }
 
+    private List<String> productDetailTags(ProductDetailDTO detail) {
+        List<String> tags = new ArrayList<>();
+        ProductDTO product = detail.getProduct();
+        tags.add(CacheTags.product(product.getId()));
+        if (product.getCategory() != null) {
+            tags.add(CacheTags.category(product.getCategory().getId()));
+        }
+        detail.getCampaigns().forEach(campaign -> tags.add(CacheTags.campaign(campaign.getId())));
+        return tags;
+    }
+
     @Override
-    @CacheEvict(value = "products", allEntries = true)
     public Product addProduct(CreateProductRequest request, List<MultipartFile> files) {
         String productCode = request.getProductCode().trim();
         if (productRepository.existsByProductCode(productCode)) {
@@ -233,7 +266,10 @@ public class ProductService implements IProductService {
                 category
         );
         product.setStatus(ProductStatus.AVAILABLE);
-        product.setSlug(generateUniqueSlug(product.getName()));
+        if (request.getPosition() != null) {
+            // Placed before the insert, so positioning writes no other row
+            adjustPosition(product, request.getPosition());
+        }
 
         if (files != null && !files.isEmpty()) {
             List<CompletableFuture<String>> futures = files.stream()
@@ -254,19 +290,16 @@ public class ProductService implements IProductService {
             product.setImageProducts(imageProducts);
         }
 
-        product = productRepository.save(product);
+        product = saveWithUniqueSlug(product);
 
-        if (request.getPosition() != null) {
-            adjustPositions(product, request.getPosition());
-        }
-        clearProductCache();
+        cacheTagService.invalidate(List.of(CacheTags.PRODUCT_LIST));
+        eventPublisher.publishEvent(ProductCatalogChangedEvent.of(product.getId()));
         log.info("Product added and cache cleared for id: {}", product.getId());
         return product;
     }
 
     @Override
     @Transactional
-    @CacheEvict(value = "products", allEntries = true)
     public Product updateProduct(UpdateProductRequest request, UUID id, List<MultipartFile> files) {
         return productRepository.findById(id)
                 .map(existingProduct -> {
@@ -280,10 +313,26 @@ public class ProductService implements IProductService {
     }
 
     private Product updateExistingProduct(Product existingProduct, UpdateProductRequest request, List<MultipartFile> files) {
+        String oldName = existingProduct.getName();
+        BigDecimal oldPrice = existingProduct.getPrice();
+        Integer oldPosition = existingProduct.getPosition();
+        Category oldCategory = existingProduct.getCategory();
+
         updateBasicFields(existingProduct, request);
         updateCategory(existingProduct, request);
         updateImageProducts(existingProduct, request, files);
-        clearProductCache();
+
+        List<String> tags = new ArrayList<>();
+        tags.add(CacheTags.product(existingProduct.getId()));
+        // Fields that are filtered or sorted on can move the product into other cached lists
+        if (!Objects.equals(oldName, existingProduct.getName())
+                || !Objects.equals(oldPrice, existingProduct.getPrice())
+                || !Objects.equals(oldPosition, existingProduct.getPosition())
+                || oldCategory != existingProduct.getCategory()) {
+            tags.add(CacheTags.PRODUCT_LIST);
+        }
+        cacheTagService.invalidate(tags);
+        eventPublisher.publishEvent(ProductCatalogChangedEvent.of(existingProduct.getId()));
         log.info("Product updated and cache cleared");
         return existingProduct;
     }
@@ -294,11 +343,14 @@ public class ProductService implements IProductService {
         }
         if (request.getName() != null && !request.getName().isBlank()) {
             String newName = request.getName().trim();
+            if (!newName.equals(product.getName())) {
+                product.setSlug(slugAllocator.allocate(SlugUtil.generateSlug(newName)));
+            }
             product.setName(newName);
-            product.setSlug(generateUniqueSlug(newName));
         }
         if (request.getQuantity() != null) {
             product.setQuantity(request.getQuantity());
+            inventoryReservationService.resync(product.getId(), request.getQuantity());
         }
         if (request.getDescription() != null && !request.getDescription().isBlank()) {
             product.setDescription(request.getDescription());
@@ -306,8 +358,8 @@ public class ProductService implements IProductService {
         if (request.getPrice() != null) {
             product.setPrice(request.getPrice());
         }
-        if (request.getPosition() != null && !request.getPosition().equals(product.getPosition())) {
-            adjustPositions(product, request.getPosition());
+        if (request.getPosition() != null) {
+            adjustPosition(product, request.getPosition());
         }
     }
 
@@ -367,7 +419,6 @@ public class ProductService implements IProductService {
 
     @Override
     @Transactional
-    @CacheEvict(value = "products", allEntries = true)
     public void deleteProductById(UUID id) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found!"));
@@ -395,13 +446,13 @@ public class ProductService implements IProductService {
         cloudinaryService.deleteImagesFromCloudinary(imageUrls);
         product.setDeleted(true);
         productRepository.save(product);
-        clearProductCache();
+        cacheTagService.invalidate(List.of(CacheTags.product(id), CacheTags.PRODUCT_LIST));
+        eventPublisher.publishEvent(ProductCatalogChangedEvent.of(id));
         log.info("Product marked deleted and cache cleared for id: {}", id);
     }
 
     @Override
     @Transactional
-    @CacheEvict(value = "products", allEntries = true)
     public void deleteProducts(List<UUID> ids) {
         List<Product> products = productRepository.findAllById(ids)
                 .stream()
@@ -445,7 +496,11 @@ public class ProductService implements IProductService {
 
         products.forEach(p -> p.setDeleted(true));
         productRepository.saveAll(products);
-        clearProductCache();
+        List<String> tags = new ArrayList<>();
+        tags.add(CacheTags.PRODUCT_LIST);
+        products.forEach(p -> tags.add(CacheTags.product(p.getId())));
+        cacheTagService.invalidate(tags);
+        eventPublisher.publishEvent(new ProductCatalogChangedEvent(ids));
         log.info("Multiple products marked deleted and cache cleared for ids: {}", ids);
     }
 
@@ -459,7 +514,12 @@ public class ProductService implements IProductService {
         if (product == null) {
             return null;
         }
+        return convertToDto(product, product.getImageProducts().stream()
+                .filter(ip -> !ip.isDeleted())
+                .toList());
+    }
 
+    private ProductDTO convertToDto(Product product, List<ImageProduct> images) {
         ProductDTO dto = new ProductDTO();
         dto.setId(product.getId());
         dto.setProductCode(product.getProductCode());
@@ -468,7 +528,7 @@ public class ProductService implements IProductService {
         dto.setQuantity(product.getQuantity());
         dto.setDescription(product.getDescription());
         dto.setPrice(product.getPrice());
-        dto.setPosition(product.getPosition());
+        dto.setSortKey(product.getPosition());
         dto.setStatus(product.getStatus());
         dto.setDeleted(product.isDeleted());
         dto.setCreatedAt(product.getCreatedAt());
@@ -481,8 +541,7 @@ public class ProductService implements IProductService {
             dto.setCategory(categoryDto);
         }
 
-        List<ImageProductDTO> imageDtos = product.getImageProducts().stream()
-                .filter(ip -> !ip.isDeleted())
+        List<ImageProductDTO> imageDtos = images.stream()
                 .map(ip -> {
                     ImageProductDTO imgDto = new ImageProductDTO();
                     imgDto.setAltText(ip.getAltText());
@@ -495,38 +554,36 @@ public class ProductService implements IProductService {
         return dto;
     }
 
-    private String generateUniqueSlug(String name) {
-        String baseSlug = SlugUtil.generateSlug(name);
-        String uniqueSlug = baseSlug;
-        int count = 1;
-        while (productRepository.existsBySlug(uniqueSlug)) {
-            uniqueSlug = baseSlug + "-" + count;
-            count++;
+    /**
+     * Insert a new product under a free slug. Another product can take the same slug between the allocation
+     * and the insert, the insert is then retried with the next free one.
+     */
+    private Product saveWithUniqueSlug(Product product) {
+        String baseSlug = SlugUtil.generateSlug(product.getName());
+        for (int attempt = 1; ; attempt++) {
+            product.setSlug(slugAllocator.allocate(baseSlug));
+            try {
+                return productRepository.save(product);
+            } catch (DataIntegrityViolationException e) {
+                if (attempt >= MAX_SLUG_ATTEMPTS || !productRepository.existsBySlug(product.getSlug())) {
+                    throw e;
+                }
+                log.warn("Slug {} was taken concurrently, allocating another", product.getSlug());
+                // Ids and version were assigned for the failed insert, the retry must insert new rows
+                product.setId(null);
+                product.setVersion(null);
+                product.getImageProducts().forEach(image -> image.setId(null));
+            }
         }
-        return uniqueSlug;
     }
 
-    private void adjustPositions(Product product, int newPosition) {
-        try {
-            List<Product> activeProducts = productRepository.findActiveProductsSorted(Pageable.unpaged()).getContent();
-            activeProducts.removeIf(p -> p.getId().equals(product.getId()));
-
-            if (newPosition < 1) {
-                newPosition = 1;
-            } else if (newPosition > activeProducts.size() + 1) {
-                newPosition = activeProducts.size() + 1;
-            }
-            activeProducts.add(newPosition - 1, product);
-
-            int pos = 1;
-            for (Product p : activeProducts) {
-                p.setPosition(pos++);
-            }
-
-            productRepository.saveAll(activeProducts);
-        } catch (Exception ex) {
-            log.error("Error adjusting product positions for product ID {}: {}", product.getId(), ex.getMessage(), ex);
-        }
+    /**
+     * Move a product to a place of the list. Only the product itself gets a new position,
+     * see ProductPositions, and it is written with the rest of its changes.
+     */
+    private void adjustPosition(Product product, int place) {
+        Integer current = product.getId() != null ? product.getPosition() : null;
+        product.setPosition(productPositions.positionFor(product.getId(), current, place));
     }
 
 }
\ No newline at end of file
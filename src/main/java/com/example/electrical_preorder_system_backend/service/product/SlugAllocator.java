@@ -0,0 +1,106 @@
+package com.example.electrical_preorder_system_backend.service.product;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Allocates unique product slugs. A base slug already in use gets the next numeric suffix after the
+ * highest one taken, base-1, base-2 and so on, found in one query over the slugs starting with the base.
+ * Inside a transaction the allocation also takes a transaction-scoped advisory lock on the base, so
+ * concurrent allocations of the same base wait for the first one to commit. Without a transaction
+ * callers retry with a new slug when the insert hits the unique constraint.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SlugAllocator {
+
+    private static final String LOCK_SQL = "SELECT pg_advisory_xact_lock(lock_key) FROM (" +
+            "SELECT DISTINCT hashtext('product-slug:' || base) AS lock_key FROM unnest(?::text[]) AS base " +
+            "ORDER BY lock_key) lock_keys";
+
+    // Slugs starting with "base-" are the ones between "base-" and "base." in the text_pattern_ops order
+    private static final String HIGHEST_SUFFIX_SQL = "SELECT b.base, " +
+            "MAX(CASE WHEN p.slug = b.base THEN 0 ELSE CAST(substring(p.slug FROM length(b.base) + 2) AS integer) END) " +
+            "FROM unnest(?::text[]) AS b(base) JOIN product p ON p.slug = b.base " +
+            "OR (p.slug ~>=~ (b.base || '-') AND p.slug ~<~ (b.base || '.') " +
+            "AND substring(p.slug FROM length(b.base) + 2) ~ '^[1-9][0-9]{0,8}$') " +
+            "GROUP BY b.base";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Slug not used by any product, deleted ones included, derived from a base slug
+     *
+     * @param base Base slug, see SlugUtil.generateSlug
+     * @return The base, or the base with the next free numeric suffix
+     */
+    public String allocate(String base) {
+        return allocateAll(Map.of(base, 1)).get(base).get(0);
+    }
+
+    /** Free slugs for several base slugs at once, in one query whatever the number of bases
+     *
+     * @param countsByBase Number of slugs wanted for each base slug
+     * @return Distinct free slugs of each base, in suffix order
+     */
+    public Map<String, List<String>> allocateAll(Map<String, Integer> countsByBase) {
+        String[] bases = countsByBase.keySet().toArray(String[]::new);
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Locks are taken in hash order, so two allocations sharing bases cannot deadlock
+            jdbcTemplate.query(con -> {
+                var statement = con.prepareStatement(LOCK_SQL);
+                statement.setArray(1, con.createArrayOf("text", bases));
+                return statement;
+            }, rs -> null);
+        }
+        Map<String, Integer> highest = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            var statement = con.prepareStatement(HIGHEST_SUFFIX_SQL);
+            statement.setArray(1, con.createArrayOf("text", bases));
+            return statement;
+        }, rs -> {
+            highest.put(rs.getString(1), rs.getInt(2));
+        });
+
+        Map<String, List<String>> slugs = new LinkedHashMap<>();
+        countsByBase.forEach((base, count) -> {
+            List<String> allocated = new ArrayList<>(count);
+            Integer taken = highest.get(base);
+            int next = 1;
+            if (taken == null) {
+                allocated.add(base);
+            } else {
+                next = taken + 1;
+            }
+            while (allocated.size() < count) {
+                allocated.add(base + "-" + next++);
+            }
+            slugs.put(base, allocated);
+        });
+        return slugs;
+    }
+
+    /**
+     * The unique index on slug uses the collation of the database, which cannot serve prefix
+     * searches unless it is C. Hibernate cannot declare an operator class, so this index is created here.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void createPrefixIndex() {
+        try {
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_product_slug_pattern ON product (slug text_pattern_ops)");
+        } catch (Exception e) {
+            log.warn("Slug prefix index not created: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.electrical_preorder_system_backend.service.retry;
+
+import com.example.electrical_preorder_system_backend.exception.ConcurrentUpdateException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Runs an action again after a jittered delay when it fails with a retryable error.
+ * Optimistic-lock retries open a fresh transaction per attempt, so every attempt re-reads
+ * the rows it changes instead of reusing the stale persistence context of the failed one.
+ */
+@Slf4j
+@Component
+public class RetryExecutor {
+
+    private final TransactionTemplate transactionTemplate;
+    private final RetryPolicy optimisticLockPolicy;
+
+    public RetryExecutor(PlatformTransactionManager transactionManager,
+                         @Value("${retry.optimistic-lock.max-attempts:5}") int maxAttempts,
+                         @Value("${retry.optimistic-lock.initial-delay-ms:20}") long initialDelayMs,
+                         @Value("${retry.optimistic-lock.max-delay-ms:500}") long maxDelayMs) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.optimisticLockPolicy = new RetryPolicy(maxAttempts,
+                Duration.ofMillis(initialDelayMs),
+                Duration.ofMillis(maxDelayMs),
+                OptimisticLockingFailureException.class::isInstance);
+    }
+
+    /** Run action in its own transaction, retrying when a versioned row was changed concurrently
+     *
+     * @param operation Name used in logs and error messages
+     * @param action Work to do, must be safe to run more than once
+     * @return Result of the first successful attempt
+     */
+    public <T> T executeInTransaction(String operation, Supplier<T> action) {
+        try {
+            return execute(operation, optimisticLockPolicy, () -> transactionTemplate.execute(status -> action.get()));
+        } catch (OptimisticLockingFailureException e) {
+            throw new ConcurrentUpdateException("Failed to " + operation + " because of concurrent updates, please try again", e);
+        }
+    }
+
+    public void runInTransaction(String operation, Runnable action) {
+        executeInTransaction(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /** Run action, retrying failures accepted by policy after a jittered exponential delay
+     *
+     * @param operation Name used in logs
+     * @param policy Retry policy
+     * @param action Work to do, must be safe to run more than once
+     * @return Result of the first successful attempt
+     */
+    public <T> T execute(String operation, RetryPolicy policy, Supplier<T> action) {
+        int attempt = 1;
+        while (true) {
+            try {
+                return action.get();
+            } catch (RuntimeException e) {
+                if (!policy.shouldRetry(e, attempt)) {
+                    throw e;
+                }
+                long delay = policy.delayMillis(attempt);
+                log.info("Attempt {} to {} failed ({}), retrying in {} ms", attempt, operation, e.getClass().getSimpleName(), delay);
+                sleep(delay);
+                attempt++;
+            }
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry", e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.electrical_preorder_system_backend.service.retry;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+/**
+ * How often and how long to wait before running a failed action again.
+ * Delays grow exponentially and are fully jittered, so writers that collided once
+ * do not collide again on the next attempt.
+ *
+ * @param maxAttempts   total attempts including the first one
+ * @param initialDelay  upper bound of the first delay
+ * @param maxDelay      upper bound of any delay
+ * @param retryOn       which failures are worth another attempt
+ */
+public record RetryPolicy(int maxAttempts, Duration initialDelay, Duration maxDelay, Predicate<Throwable> retryOn) {
+
+    public RetryPolicy {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1");
+        }
+    }
+
+    public long delayMillis(int attempt) {
+        long cap = Math.min(maxDelay.toMillis(), initialDelay.toMillis() << Math.min(attempt - 1, 20));
+        return cap <= 0 ? 0 : ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    public boolean shouldRetry(Throwable failure, int attempt) {
+        return attempt < maxAttempts && retryOn.test(failure);
+    }
+}
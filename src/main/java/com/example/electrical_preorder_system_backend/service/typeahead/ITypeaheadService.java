@@ -0,0 +1,15 @@
+package com.example.electrical_preorder_system_backend.service.typeahead;
+
+import com.example.electrical_preorder_system_backend.dto.response.category.CategoryDTO;
+import com.example.electrical_preorder_system_backend.dto.response.typeahead.TypeaheadDTO;
+
+import java.util.List;
+
+public interface ITypeaheadService {
+
+    TypeaheadDTO suggest(String query, int limit);
+
+    List<CategoryDTO> searchCategories(String searchTerm);
+
+    void rebuild();
+}
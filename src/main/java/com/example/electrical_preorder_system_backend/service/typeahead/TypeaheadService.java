@@ -0,0 +1,203 @@
+package com.example.electrical_preorder_system_backend.service.typeahead;
+
+import com.example.electrical_preorder_system_backend.dto.response.category.CategoryDTO;
+import com.example.electrical_preorder_system_backend.dto.response.typeahead.TypeaheadDTO;
+import com.example.electrical_preorder_system_backend.dto.response.typeahead.TypeaheadSuggestionDTO;
+import com.example.electrical_preorder_system_backend.entity.Category;
+import com.example.electrical_preorder_system_backend.repository.CategoryRepository;
+import com.example.electrical_preorder_system_backend.repository.ProductRepository;
+import com.example.electrical_preorder_system_backend.service.category.CategoryChangedEvent;
+import com.example.electrical_preorder_system_backend.service.product.ProductCatalogChangedEvent;
+import com.example.electrical_preorder_system_backend.util.PrefixTrie;
+import com.example.electrical_preorder_system_backend.util.SlugUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Typeahead over category and product names, answered from prefix tries held in memory.
+ * Every word of a name starts a key, so "den" finds "Bong den LED" as well as "Den ban". Both tries
+ * are rebuilt from the database in the background after committed category or product changes, changes
+ * arriving during a rebuild are covered by one more, and swapped in at once, readers always see
+ * a complete snapshot.
+ */
+@Slf4j
+@Service
+public class TypeaheadService implements ITypeaheadService {
+
+    // Most suggestions of each kind a lookup can ask for
+    private static final int MAX_SUGGESTIONS = 20;
+
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final TaskExecutor taskExecutor;
+
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile Snapshot snapshot;
+
+    private record Candidate(TypeaheadSuggestionDTO suggestion, int word, int nameLength) {
+    }
+
+    private record NamedCategory(CategoryDTO category, String normalizedName) {
+    }
+
+    private record Snapshot(PrefixTrie<Candidate> categories, PrefixTrie<Candidate> products,
+                            List<NamedCategory> categoryList) {
+    }
+
+    private static final Comparator<Candidate> BY_RELEVANCE = Comparator
+            .comparingInt(Candidate::word)
+            .thenComparingInt(Candidate::nameLength)
+            .thenComparing(candidate -> candidate.suggestion().getName());
+
+    public TypeaheadService(CategoryRepository categoryRepository,
+                            ProductRepository productRepository,
+                            @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
+        this.categoryRepository = categoryRepository;
+        this.productRepository = productRepository;
+        this.taskExecutor = taskExecutor;
+    }
+
+    @Override
+    public TypeaheadDTO suggest(String query, int limit) {
+        String prefix = SlugUtil.normalize(query);
+        if (prefix.isEmpty()) {
+            return new TypeaheadDTO();
+        }
+        Snapshot current = snapshot();
+        return new TypeaheadDTO(suggestions(current.categories(), prefix, limit),
+                suggestions(current.products(), prefix, limit));
+    }
+
+    @Override
+    public List<CategoryDTO> searchCategories(String searchTerm) {
+        String term = SlugUtil.normalize(searchTerm);
+        return snapshot().categoryList().stream()
+                .filter(named -> named.normalizedName().contains(term))
+                .map(named -> {
+                    CategoryDTO dto = new CategoryDTO();
+                    dto.setId(named.category().getId());
+                    dto.setName(named.category().getName());
+                    return dto;
+                })
+                .toList();
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        List<Map.Entry<String, Candidate>> categoryKeys = new ArrayList<>();
+        List<NamedCategory> categoryList = new ArrayList<>();
+        for (Category category : categoryRepository.findByIsDeletedFalseOrderByNameAsc()) {
+            CategoryDTO dto = new CategoryDTO();
+            dto.setId(category.getId());
+            dto.setName(category.getName());
+            String normalized = SlugUtil.normalize(category.getName());
+            categoryList.add(new NamedCategory(dto, normalized));
+            addKeys(categoryKeys, normalized, new TypeaheadSuggestionDTO(category.getId(), category.getName(), null));
+        }
+
+        List<Map.Entry<String, Candidate>> productKeys = new ArrayList<>();
+        for (Object[] row : productRepository.findActiveNames()) {
+            addKeys(productKeys, SlugUtil.normalize((String) row[1]),
+                    new TypeaheadSuggestionDTO((UUID) row[0], (String) row[1], (String) row[2]));
+        }
+
+        snapshot = new Snapshot(trie(categoryKeys), trie(productKeys), categoryList);
+        log.info("Typeahead rebuilt with {} category and {} product keys in {} ms",
+                categoryKeys.size(), productKeys.size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        requestRebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(ProductCatalogChangedEvent event) {
+        requestRebuild();
+    }
+
+    /** Mark the tries stale and leave the committing request, writes arriving together share one rebuild */
+    private void requestRebuild() {
+        rebuildPending.set(true);
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            taskExecutor.execute(this::drainRebuilds);
+        } catch (RuntimeException e) {
+            rebuilding.set(false);
+            log.error("Failed to start typeahead rebuild: {}", e.getMessage());
+        }
+    }
+
+    private void drainRebuilds() {
+        try {
+            while (rebuildPending.getAndSet(false)) {
+                rebuildQuietly();
+            }
+        } finally {
+            rebuilding.set(false);
+        }
+        // A change marked after the last check and before the flag was cleared
+        if (rebuildPending.get()) {
+            requestRebuild();
+        }
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            // The previous snapshot keeps serving until the next change
+            log.error("Failed to rebuild typeahead: {}", e.getMessage());
+        }
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            rebuild();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    private static void addKeys(List<Map.Entry<String, Candidate>> keys, String normalizedName,
+                                TypeaheadSuggestionDTO suggestion) {
+        if (normalizedName.isEmpty()) {
+            return;
+        }
+        String[] words = normalizedName.split(" ");
+        int offset = 0;
+        for (int word = 0; word < words.length; word++) {
+            keys.add(Map.entry(normalizedName.substring(offset),
+                    new Candidate(suggestion, word, normalizedName.length())));
+            offset += words[word].length() + 1;
+        }
+    }
+
+    private static PrefixTrie<Candidate> trie(List<Map.Entry<String, Candidate>> keys) {
+        return PrefixTrie.build(keys, BY_RELEVANCE, candidate -> candidate.suggestion().getId(), MAX_SUGGESTIONS);
+    }
+
+    private static List<TypeaheadSuggestionDTO> suggestions(PrefixTrie<Candidate> trie, String prefix, int limit) {
+        return trie.best(prefix, Math.min(limit, MAX_SUGGESTIONS)).stream()
+                .map(Candidate::suggestion)
+                .toList();
+    }
+}
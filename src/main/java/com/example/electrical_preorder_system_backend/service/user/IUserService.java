@@ -62,12 +62,14 @@ public interface IUserService {
 
     /** Get all users with filter
      *
+     * @param mode Pagination mode, offset or keyset
+     * @param cursor Cursor of the next page in keyset mode, null for the first page
      * @return UserListDTO
      */
     UserListDTO getUsers(int page, int size, String role, String status,
                          String search, Boolean isVerified, Boolean isDeleted,
                          String sortField, String sortDirection, LocalDateTime createdAtMin,
-                         LocalDateTime createdAtMax, Boolean isOnline);
+                         LocalDateTime createdAtMax, Boolean isOnline, String mode, String cursor);
 
     /** Update password with current password and new password
      *
@@ -20,12 +20,17 @@ import com.example.electrical_preorder_system_backend.enums.UserStatus;
 import com.example.electrical_preorder_system_backend.mapper.DeviceTokenMapper;
 import com.example.electrical_preorder_system_backend.mapper.OrderMapper;
 import com.example.electrical_preorder_system_backend.mapper.UserMapper;
+import com.example.electrical_preorder_system_backend.repository.AggregateTotalsRepository;
+import com.example.electrical_preorder_system_backend.repository.AggregateTotalsRepository.AggregateTotals;
 import com.example.electrical_preorder_system_backend.repository.DeviceTokenRepository;
 import com.example.electrical_preorder_system_backend.repository.OrderRepository;
 import com.example.electrical_preorder_system_backend.repository.UserRepository;
+import com.example.electrical_preorder_system_backend.repository.specification.OrderSpecification;
 import com.example.electrical_preorder_system_backend.repository.specification.UserSpecification;
 import com.example.electrical_preorder_system_backend.service.cloudinary.CloudinaryService;
 import com.example.electrical_preorder_system_backend.service.email.EmailService;
+import com.example.electrical_preorder_system_backend.util.KeysetCursor;
+import com.example.electrical_preorder_system_backend.util.KeysetCursor.KeysetPage;
 import com.example.electrical_preorder_system_backend.util.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -62,6 +67,7 @@ public class UserService implements IUserService {
     private final EmailService emailService;
     private final DeviceTokenRepository deviceTokenRepository;
     private final OrderRepository orderRepository;
+    private final AggregateTotalsRepository aggregateTotalsRepository;
     private final CloudinaryService cloudinaryService;
 
     @Value("${spring.security.oauth2.client.registration.google.client-id}")
@@ -321,7 +327,7 @@ public class UserService implements IUserService {
     public UserListDTO getUsers(int page, int size, String role, String status,
                                 String search, Boolean isVerified, Boolean isDeleted,
                                 String sortField, String sortDirection, LocalDateTime createdAtMin,
-                                LocalDateTime createdAtMax, Boolean isOnline) {
+                                LocalDateTime createdAtMax, Boolean isOnline, String mode, String cursor) {
         String errorMessage = Validator.verifyUserFilter(page, size, role, status, sortField, sortDirection, User.class);
         if (errorMessage != null) {
             throw new IllegalArgumentException(errorMessage);
@@ -341,6 +347,11 @@ public class UserService implements IUserService {
         if (isOnline) {
             spec = spec.and(UserSpecification.hasNonExpiredToken());
         }
+        if (KeysetCursor.isKeysetMode(mode)) {
+            KeysetPage<User> users = KeysetCursor.fetch(userRepository, User.class, spec, cursor, sortField,
+                    Sort.Direction.fromString(sortDirection), size);
+            return UserMapper.toUserListDTO(users.content(), users.nextCursor(), size);
+        }
 
         Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortField);
         Pageable pageable = PageRequest.of(page, size, sort);
@@ -377,14 +388,22 @@ public class UserService implements IUserService {
         }else {
             orderPage = orderRepository.findAllByUserIdAndStatus(user.getId(), status, pageable);
         }
-        long totalAmount = orderPage.stream().mapToLong(order -> order.getTotalAmount().longValue()).sum();
-        return OrderMapper.toOrderListDTO(
+        Specification<Order> spec = Specification.where(OrderSpecification.hasUserId(user.getId()))
+                .and(OrderSpecification.isDeleted(false));
+        if (!status.equals("all")) {
+            spec = spec.and(OrderSpecification.hasStatus(status));
+        }
+        AggregateTotals totals = aggregateTotalsRepository.aggregate(Order.class, spec, "totalAmount",
+                user.getId() + "|" + status);
+        OrderListDTO orderList = OrderMapper.toOrderListDTO(
                 orderPage.getContent(),
-                totalAmount,
+                totals.sum().longValue(),
                 orderPage.getTotalPages(),
                 orderPage.getTotalElements(),
                 orderPage.getNumber(),
                 orderPage.getSize()
         );
+        orderList.setAverageAmount(totals.average());
+        return orderList;
     }
 }
\ No newline at end of file
@@ -0,0 +1,176 @@
+package com.example.electrical_preorder_system_backend.util;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Id;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keyset (seek) pagination. A page is the first rows after the (sort value, id) of the last row of the
+ * previous page, so its cost does not depend on how deep the client has scrolled, no count query runs,
+ * and rows inserted meanwhile never shift the following pages. The position is handed to the client
+ * as an opaque base64 cursor.
+ */
+public class KeysetCursor {
+
+    public static final String MODE_OFFSET = "offset";
+    public static final String MODE_KEYSET = "keyset";
+
+    private static final String SEPARATOR = "|";
+    private static final String ID_FIELD = "id";
+
+    public record KeysetPage<T>(List<T> content, String nextCursor) {
+    }
+
+    public static boolean isKeysetMode(String mode) {
+        if (mode == null || mode.equalsIgnoreCase(MODE_OFFSET)) {
+            return false;
+        }
+        if (mode.equalsIgnoreCase(MODE_KEYSET)) {
+            return true;
+        }
+        throw new IllegalArgumentException("Invalid pagination mode: " + mode);
+    }
+
+    /** Whether a field can be used as keyset sort key, it must be a non-null column of the entity
+     *
+     * @param entityClass Entity class
+     * @param field Field name
+     * @return true if the field is the id or a non-nullable column
+     */
+    public static boolean isValidSortField(Class<?> entityClass, String field) {
+        Field declared = ReflectionUtils.findField(entityClass, field);
+        if (declared == null) {
+            return false;
+        }
+        if (declared.isAnnotationPresent(Id.class)) {
+            return true;
+        }
+        Column column = declared.getAnnotation(Column.class);
+        return column != null && !column.nullable();
+    }
+
+    /** Fetch the page following a cursor
+     *
+     * @param repository Repository of the entity
+     * @param entityClass Entity class
+     * @param spec Filters of the listing
+     * @param cursor Cursor returned with the previous page, null for the first page
+     * @param sortField Sort field, see isValidSortField
+     * @param direction Sort direction
+     * @param size Page size
+     * @return Rows of the page and the cursor of the next one, null on the last page
+     */
+    public static <T> KeysetPage<T> fetch(JpaSpecificationExecutor<T> repository, Class<T> entityClass,
+                                          Specification<T> spec, String cursor, String sortField,
+                                          Sort.Direction direction, int size) {
+        if (!isValidSortField(entityClass, sortField)) {
+            throw new IllegalArgumentException("Invalid sort field for keyset pagination: " + sortField);
+        }
+        Specification<T> seek = Specification.where(spec);
+        if (cursor != null && !cursor.isBlank()) {
+            seek = seek.and(after(entityClass, cursor, sortField, direction));
+        }
+        Sort sort = Sort.by(direction, sortField).and(Sort.by(direction, ID_FIELD));
+        // One extra row tells whether another page follows, without counting
+        List<T> rows = repository.findBy(seek, query -> query.sortBy(sort).limit(size + 1).all());
+        if (rows.size() <= size) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> content = rows.subList(0, size);
+        T last = content.get(size - 1);
+        return new KeysetPage<>(content, encode(read(last, sortField), read(last, ID_FIELD)));
+    }
+
+    public static String encode(Object sortValue, Object id) {
+        String position = (sortValue instanceof Enum<?> e ? e.name() : String.valueOf(sortValue)) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> Specification<T> after(Class<T> entityClass, String cursor, String sortField,
+                                              Sort.Direction direction) {
+        String position;
+        try {
+            position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        int separator = position.lastIndexOf(SEPARATOR);
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        // Parsed here rather than in the predicate, so a bad cursor is a bad request and not a query failure
+        Comparable value = parse(position.substring(0, separator), fieldType(entityClass, sortField));
+        Comparable lastId = parse(position.substring(separator + 1), fieldType(entityClass, ID_FIELD));
+
+        return (root, query, cb) -> {
+            Path<Comparable> path = root.get(sortField);
+            Path<Comparable> id = root.get(ID_FIELD);
+            boolean ascending = direction.isAscending();
+            Predicate beyond = ascending ? cb.greaterThan(path, value) : cb.lessThan(path, value);
+            Predicate tieBreak = cb.and(cb.equal(path, value),
+                    ascending ? cb.greaterThan(id, lastId) : cb.lessThan(id, lastId));
+            return cb.or(beyond, tieBreak);
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparable parse(String value, Class<?> type) {
+        try {
+            if (type == LocalDateTime.class) {
+                return LocalDateTime.parse(value);
+            }
+            if (type == BigDecimal.class) {
+                return new BigDecimal(value);
+            }
+            if (type == Integer.class || type == int.class) {
+                return Integer.valueOf(value);
+            }
+            if (type == Long.class || type == long.class) {
+                return Long.valueOf(value);
+            }
+            if (type == Boolean.class || type == boolean.class) {
+                return Boolean.valueOf(value);
+            }
+            if (type == UUID.class) {
+                return UUID.fromString(value);
+            }
+            if (type.isEnum()) {
+                return Enum.valueOf((Class<Enum>) type, value);
+            }
+            return value;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private static Class<?> fieldType(Class<?> entityClass, String field) {
+        Field declared = ReflectionUtils.findField(entityClass, field);
+        if (declared == null) {
+            throw new IllegalArgumentException("Invalid field: " + field);
+        }
+        return declared.getType();
+    }
+
+    private static Object read(Object entity, String field) {
+        Field declared = ReflectionUtils.findField(entity.getClass(), field);
+        if (declared == null) {
+            throw new IllegalArgumentException("Invalid field: " + field);
+        }
+        ReflectionUtils.makeAccessible(declared);
+        return ReflectionUtils.getField(declared, entity);
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.electrical_preorder_system_backend.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Immutable prefix trie built once from a set of keys. Nodes are laid out breadth first in parallel
+ * arrays, so the children of a node are contiguous and sorted, and each node records the range of
+ * the sorted values whose key starts with its prefix. A lookup walks one node per character of the
+ * prefix, without allocating per node objects.
+ * Values are ranked by an order given at build time, one value per identity. Nodes whose prefix matches
+ * more than SCAN_LIMIT values keep their best values computed at build time, smaller ranges are ranked
+ * when looked up, so the best matches of a short prefix are found however far they sort among the keys.
+ */
+public class PrefixTrie<T> {
+
+    private static final int SCAN_LIMIT = 256;
+
+    private final Comparator<? super T> order;
+    private final Function<? super T, ?> identity;
+    private final Object[] values;
+    private final char[] labels;
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final int[] rangeStart;
+    private final int[] rangeEnd;
+    private final int[][] best;
+
+    private PrefixTrie(Comparator<? super T> order, Function<? super T, ?> identity, Object[] values,
+                       char[] labels, int[] firstChild, int[] childCount, int[] rangeStart, int[] rangeEnd,
+                       int topK) {
+        this.order = order;
+        this.identity = identity;
+        this.values = values;
+        this.labels = labels;
+        this.firstChild = firstChild;
+        this.childCount = childCount;
+        this.rangeStart = rangeStart;
+        this.rangeEnd = rangeEnd;
+        this.best = new int[labels.length][];
+        for (int node = 0; node < labels.length; node++) {
+            if (rangeEnd[node] - rangeStart[node] > SCAN_LIMIT) {
+                best[node] = rank(rangeStart[node], rangeEnd[node], topK);
+            }
+        }
+    }
+
+    /** Build a trie, a key may be given several times with different values
+     *
+     * @param entries Keys and their values
+     * @param order Best values first
+     * @param identity Values with the same identity are returned once, the best of them
+     * @param topK Most values a lookup can return
+     * @return Trie over the keys
+     */
+    public static <T> PrefixTrie<T> build(List<Map.Entry<String, T>> entries, Comparator<? super T> order,
+                                          Function<? super T, ?> identity, int topK) {
+        List<Map.Entry<String, T>> sorted = new ArrayList<>(entries);
+        sorted.sort(Map.Entry.comparingByKey(Comparator.naturalOrder()));
+        String[] keys = sorted.stream().map(Map.Entry::getKey).toArray(String[]::new);
+        Object[] values = sorted.stream().map(Map.Entry::getValue).toArray();
+
+        // A key adds at most one node per character, plus the root
+        int capacity = Arrays.stream(keys).mapToInt(String::length).sum() + 1;
+        char[] labels = new char[capacity];
+        int[] depth = new int[capacity];
+        int[] firstChild = new int[capacity];
+        int[] childCount = new int[capacity];
+        int[] rangeStart = new int[capacity];
+        int[] rangeEnd = new int[capacity];
+        rangeEnd[0] = keys.length;
+        int nodes = 1;
+
+        // Nodes are processed in creation order, which is breadth first
+        for (int node = 0; node < nodes; node++) {
+            int d = depth[node];
+            int i = rangeStart[node];
+            int end = rangeEnd[node];
+            while (i < end && keys[i].length() == d) {
+                i++;
+            }
+            firstChild[node] = nodes;
+            while (i < end) {
+                char c = keys[i].charAt(d);
+                int j = i;
+                while (j < end && keys[j].charAt(d) == c) {
+                    j++;
+                }
+                labels[nodes] = c;
+                depth[nodes] = d + 1;
+                rangeStart[nodes] = i;
+                rangeEnd[nodes] = j;
+                nodes++;
+                i = j;
+            }
+            childCount[node] = nodes - firstChild[node];
+        }
+        return new PrefixTrie<>(order, identity, values,
+                Arrays.copyOf(labels, nodes), Arrays.copyOf(firstChild, nodes), Arrays.copyOf(childCount, nodes),
+                Arrays.copyOf(rangeStart, nodes), Arrays.copyOf(rangeEnd, nodes), topK);
+    }
+
+    /** Best values whose key starts with a prefix, one per identity
+     *
+     * @param prefix Prefix, empty for every value
+     * @param limit Maximum number of values returned, at most the topK of the trie for long ranges
+     * @return Matching values, best first
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> best(String prefix, int limit) {
+        int node = find(prefix);
+        if (node < 0) {
+            return List.of();
+        }
+        int[] ranked = best[node] != null ? best[node] : rank(rangeStart[node], rangeEnd[node], limit);
+        return Arrays.stream(ranked).limit(limit).mapToObj(i -> (T) values[i]).toList();
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    /** Indexes of the best value of each identity in a range of values, best first */
+    @SuppressWarnings("unchecked")
+    private int[] rank(int from, int to, int limit) {
+        Comparator<Integer> byOrder = (a, b) -> order.compare((T) values[a], (T) values[b]);
+        Map<Object, Integer> bestByIdentity = new HashMap<>();
+        for (int i = from; i < to; i++) {
+            bestByIdentity.merge(identity.apply((T) values[i]), i,
+                    (current, candidate) -> byOrder.compare(candidate, current) < 0 ? candidate : current);
+        }
+        return bestByIdentity.values().stream()
+                .sorted(byOrder)
+                .limit(limit)
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    private int find(String prefix) {
+        int node = 0;
+        for (int i = 0; i < prefix.length(); i++) {
+            int low = firstChild[node];
+            int high = low + childCount[node] - 1;
+            char c = prefix.charAt(i);
+            int child = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (labels[mid] < c) {
+                    low = mid + 1;
+                } else if (labels[mid] > c) {
+                    high = mid - 1;
+                } else {
+                    child = mid;
+                    break;
+                }
+            }
+            if (child < 0) {
+                return -1;
+            }
+            node = child;
+        }
+        return node;
+    }
+}
@@ -1,20 +1,45 @@
 package com.example.electrical_preorder_system_backend.util;
 
 import java.text.Normalizer;
+import java.util.Arrays;
 import java.util.Locale;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 public class SlugUtil {
 
     public static String generateSlug(String input) {
+        return normalize(input).replace(' ', '-');
+    }
+
+    /** Fold text to lowercase ASCII words separated by single spaces, dropping Vietnamese diacritics
+     *
+     * @param input Text, may be null
+     * @return Normalized text, empty for null
+     */
+    public static String normalize(String input) {
         if (input == null) {
             return "";
         }
-        String normalized = Normalizer.normalize(input, Normalizer.Form.NFD);
-        String slug = normalized.replaceAll("[^\\p{ASCII}]", "");
-        slug = slug.toLowerCase(Locale.ENGLISH)
-                .replaceAll("[^a-z0-9]+", "-")
-                .replaceAll("^-|-$", "");
-        return slug;
+        // đ is a letter of its own, not a d with a combining mark, so NFD does not decompose it
+        String folded = Normalizer.normalize(input.replace('đ', 'd').replace('Đ', 'D'), Normalizer.Form.NFD)
+                .replaceAll("[^\\p{ASCII}]", "");
+        return folded.toLowerCase(Locale.ENGLISH)
+                .replaceAll("[^a-z0-9]+", " ")
+                .trim();
+    }
+
+    /** Normalized text of several fields, as stored in a search column
+     *
+     * @param parts Field values, null values are skipped
+     * @return Normalized fields joined by spaces
+     */
+    public static String searchText(String... parts) {
+        return Arrays.stream(parts)
+                .filter(Objects::nonNull)
+                .map(SlugUtil::normalize)
+                .filter(part -> !part.isEmpty())
+                .collect(Collectors.joining(" "));
     }
 
 }
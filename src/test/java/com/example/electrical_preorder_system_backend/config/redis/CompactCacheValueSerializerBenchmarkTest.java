@@ -0,0 +1,186 @@
+package com.example.electrical_preorder_system_backend.config.redis;
+
+import com.example.electrical_preorder_system_backend.dto.cache.CachedProductPage;
+import com.example.electrical_preorder_system_backend.dto.response.campaign.SimplifiedCampaignDTO;
+import com.example.electrical_preorder_system_backend.dto.response.campaign_stage.CampaignStageDTO;
+import com.example.electrical_preorder_system_backend.dto.response.category.CategoryDTO;
+import com.example.electrical_preorder_system_backend.dto.response.product.ProductDTO;
+import com.example.electrical_preorder_system_backend.dto.response.product.ProductDetailDTO;
+import com.example.electrical_preorder_system_backend.dto.response.product_images.ImageProductDTO;
+import com.example.electrical_preorder_system_backend.enums.CampaignStageStatus;
+import com.example.electrical_preorder_system_backend.enums.ProductStatus;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the binary cache codec with the JSON serializer it replaces. Round trips and sizes are checked
+ * on every run, encode and decode times only with the benchmark profile.
+ */
+class CompactCacheValueSerializerBenchmarkTest {
+
+    private static final int WARMUP_ITERATIONS = 2_000;
+    private static final int MEASURED_ITERATIONS = 5_000;
+
+    private final GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer(redisObjectMapper());
+    private final CompactCacheValueSerializer binary = new CompactCacheValueSerializer(json, 2048);
+
+    @Test
+    void productPageIsSmallerThanJsonAndRoundTrips() {
+        CachedProductPage page = productPage(20);
+
+        assertEquals(page, binary.deserialize(binary.serialize(page)));
+        assertEquals(page, json.deserialize(json.serialize(page)));
+        assertTrue(binary.serialize(page).length < json.serialize(page).length);
+    }
+
+    @Test
+    void productDetailIsSmallerThanJsonAndRoundTrips() {
+        ProductDetailDTO detail = productDetail();
+
+        assertEquals(detail, binary.deserialize(binary.serialize(detail)));
+        assertTrue(binary.serialize(detail).length < json.serialize(detail).length);
+    }
+
+    @Test
+    void readsEntriesWrittenAsJson() {
+        CachedProductPage page = productPage(3);
+
+        assertEquals(page, binary.deserialize(json.serialize(page)));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void productPageEncodesAndDecodesFasterThanJson() {
+        assertFasterThanJson(productPage(20));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void productDetailEncodesAndDecodesFasterThanJson() {
+        assertFasterThanJson(productDetail());
+    }
+
+    private void assertFasterThanJson(Object value) {
+        long jsonEncode = measureEncode(json, value);
+        long binaryEncode = measureEncode(binary, value);
+        long jsonDecode = measureDecode(json, json.serialize(value));
+        long binaryDecode = measureDecode(binary, binary.serialize(value));
+        assertTrue(binaryEncode < jsonEncode, "Binary encode took " + binaryEncode + " ns, JSON " + jsonEncode + " ns");
+        assertTrue(binaryDecode < jsonDecode, "Binary decode took " + binaryDecode + " ns, JSON " + jsonDecode + " ns");
+    }
+
+    private static long measureEncode(RedisSerializer<Object> serializer, Object value) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            serializer.serialize(value);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            serializer.serialize(value);
+        }
+        return (System.nanoTime() - start) / MEASURED_ITERATIONS;
+    }
+
+    private static long measureDecode(RedisSerializer<Object> serializer, byte[] bytes) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            serializer.deserialize(bytes);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            serializer.deserialize(bytes);
+        }
+        return (System.nanoTime() - start) / MEASURED_ITERATIONS;
+    }
+
+    private static ObjectMapper redisObjectMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        mapper.activateDefaultTyping(
+                LaissezFaireSubTypeValidator.instance,
+                ObjectMapper.DefaultTyping.EVERYTHING,
+                JsonTypeInfo.As.PROPERTY);
+        return mapper;
+    }
+
+    private static CachedProductPage productPage(int size) {
+        List<ProductDTO> products = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            products.add(product(i));
+        }
+        return CachedProductPage.from(new PageImpl<>(products, PageRequest.of(0, size), 250));
+    }
+
+    private static ProductDetailDTO productDetail() {
+        CampaignStageDTO stage = new CampaignStageDTO();
+        stage.setId(UUID.randomUUID());
+        stage.setName("Early bird");
+        stage.setStartDate(LocalDateTime.of(2025, 3, 1, 8, 0));
+        stage.setEndDate(LocalDateTime.of(2025, 3, 10, 8, 0));
+        stage.setQuantitySold(42);
+        stage.setTargetQuantity(100);
+        stage.setStatus(CampaignStageStatus.ACTIVE);
+        stage.setCreatedAt(LocalDateTime.of(2025, 2, 20, 9, 30, 15, 123_000_000));
+        stage.setUpdatedAt(LocalDateTime.of(2025, 3, 2, 11, 0));
+
+        SimplifiedCampaignDTO campaign = new SimplifiedCampaignDTO();
+        campaign.setId(UUID.randomUUID());
+        campaign.setName("Spring launch");
+        campaign.setStartDate(LocalDateTime.of(2025, 3, 1, 8, 0));
+        campaign.setEndDate(LocalDateTime.of(2025, 4, 1, 8, 0));
+        campaign.setMinQuantity(50);
+        campaign.setMaxQuantity(500);
+        campaign.setTotalAmount(new BigDecimal("125000000.00"));
+        campaign.setStatus("ACTIVE");
+        campaign.setStages(List.of(stage));
+
+        ProductDetailDTO detail = new ProductDetailDTO();
+        detail.setProduct(product(1));
+        detail.setCampaigns(List.of(campaign));
+        return detail;
+    }
+
+    private static ProductDTO product(int index) {
+        CategoryDTO category = new CategoryDTO();
+        category.setId(UUID.randomUUID());
+        category.setName("Điều hòa");
+
+        ProductDTO product = new ProductDTO();
+        product.setId(UUID.randomUUID());
+        product.setProductCode("PRD-" + index);
+        product.setName("Máy lạnh Inverter 1.5 HP " + index);
+        product.setSlug("may-lanh-inverter-1-5-hp-" + index);
+        product.setQuantity(100 + index);
+        product.setDescription("Tiết kiệm điện, làm lạnh nhanh, vận hành êm ái. Model " + index);
+        product.setPrice(new BigDecimal("10990000.00"));
+        product.setSortKey((index + 1) * 1024);
+        product.setStatus(ProductStatus.AVAILABLE);
+        product.setCategory(category);
+        for (int i = 0; i < 3; i++) {
+            ImageProductDTO image = new ImageProductDTO();
+            image.setAltText(product.getName());
+            image.setImageUrl("https://res.cloudinary.com/demo/image/upload/v1700000000/products/" + index + "-" + i + ".jpg");
+            product.getImageProducts().add(image);
+        }
+        product.setCreatedAt(LocalDateTime.of(2025, 1, 15, 10, 0, 0, 456_789_000));
+        product.setUpdatedAt(LocalDateTime.of(2025, 2, 1, 12, 30));
+        return product;
+    }
+}
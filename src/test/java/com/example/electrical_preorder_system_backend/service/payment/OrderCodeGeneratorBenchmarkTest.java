@@ -0,0 +1,92 @@
+package com.example.electrical_preorder_system_backend.service.payment;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Draws codes from several threads on one node and on two nodes, and checks that the codes of a thread
+ * keep increasing, fit in 53 bits and never repeat. The draws run with the benchmark profile.
+ */
+class OrderCodeGeneratorBenchmarkTest {
+
+    private static final int THREADS = 4;
+    private static final int CODES_PER_THREAD = 100_000;
+
+    @Test
+    @Tag("benchmark")
+    void codesAreUniqueIncreasingAndPayOSCompatible() throws Exception {
+        OrderCodeGenerator generator = new OrderCodeGenerator(null, 3, 30_000);
+
+        List<long[]> batches = draw(List.of(generator), THREADS);
+
+        Set<Long> codes = new HashSet<>();
+        for (long[] batch : batches) {
+            for (int i = 0; i < batch.length; i++) {
+                assertTrue(batch[i] > 0 && batch[i] <= OrderCodeGenerator.MAX_ORDER_CODE);
+                if (i > 0) {
+                    assertTrue(batch[i] > batch[i - 1]);
+                }
+                codes.add(batch[i]);
+            }
+        }
+        assertEquals(THREADS * CODES_PER_THREAD, codes.size());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void nodesNeverShareCodes() throws Exception {
+        List<OrderCodeGenerator> nodes = List.of(
+                new OrderCodeGenerator(null, 0, 30_000),
+                new OrderCodeGenerator(null, OrderCodeGenerator.MAX_NODES - 1, 30_000));
+
+        Set<Long> codes = new HashSet<>();
+        for (long[] batch : draw(nodes, nodes.size())) {
+            for (long code : batch) {
+                codes.add(code);
+            }
+        }
+        assertEquals(nodes.size() * CODES_PER_THREAD, codes.size());
+    }
+
+    @Test
+    void rejectsNodeIdsThatDoNotFit() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new OrderCodeGenerator(null, OrderCodeGenerator.MAX_NODES, 30_000));
+    }
+
+    private static List<long[]> draw(List<OrderCodeGenerator> generators, int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                OrderCodeGenerator generator = generators.get(t % generators.size());
+                futures.add(executor.submit(() -> {
+                    long[] codes = new long[CODES_PER_THREAD];
+                    for (int i = 0; i < codes.length; i++) {
+                        codes[i] = generator.nextOrderCode();
+                    }
+                    return codes;
+                }));
+            }
+            List<long[]> batches = new ArrayList<>();
+            for (Future<long[]> future : futures) {
+                batches.add(future.get());
+            }
+            return batches;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.electrical_preorder_system_backend.service.product;
+
+import com.example.electrical_preorder_system_backend.config.jpa.QueryCountInspector;
+import com.example.electrical_preorder_system_backend.dto.filter.ProductFilterCriteria;
+import com.example.electrical_preorder_system_backend.dto.response.product.ProductDTO;
+import com.example.electrical_preorder_system_backend.entity.Category;
+import com.example.electrical_preorder_system_backend.entity.ImageProduct;
+import com.example.electrical_preorder_system_backend.entity.Product;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a product list page costs the same number of statements whatever its size:
+ * products with their category in one query, the images of the whole page in another, plus the count.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class ProductServiceQueryCountTest {
+
+    private static final int IMAGES_PER_PRODUCT = 2;
+
+    @Autowired
+    private IProductService productService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void productPageStatementCountDoesNotGrowWithPageSize() {
+        String small = createCategoryWithProducts(2);
+        String large = createCategoryWithProducts(20);
+        entityManager.flush();
+        entityManager.clear();
+
+        long smallPageStatements = countStatements(small, 2);
+        long largePageStatements = countStatements(large, 20);
+
+        assertEquals(smallPageStatements, largePageStatements);
+        assertTrue(largePageStatements <= 3, "Expected at most 3 statements, got " + largePageStatements);
+    }
+
+    private long countStatements(String category, int expectedProducts) {
+        ProductFilterCriteria criteria = new ProductFilterCriteria();
+        criteria.setCategory(category);
+
+        QueryCountInspector.reset();
+        Page<ProductDTO> page = productService.getProducts(criteria, PageRequest.of(0, 50, Sort.by("position")));
+        // Reading what the DTOs expose must not load anything lazily either
+        page.getContent().forEach(product -> {
+            product.getCategory().getName();
+            assertEquals(IMAGES_PER_PRODUCT, product.getImageProducts().size());
+        });
+        long statements = QueryCountInspector.count();
+
+        assertEquals(expectedProducts, page.getContent().size());
+        return statements;
+    }
+
+    private String createCategoryWithProducts(int products) {
+        // Category names are unique per run, so the page is never answered from the cache
+        String name = "query-count-" + UUID.randomUUID();
+        Category category = new Category();
+        category.setName(name);
+        entityManager.persist(category);
+        for (int i = 0; i < products; i++) {
+            String code = name + "-" + i;
+            Product product = new Product(code, "Product " + code, 10, "Query count test product",
+                    BigDecimal.valueOf(100_000), (i + 1) * 1024, category);
+            product.setSlug(code);
+            entityManager.persist(product);
+            for (int j = 0; j < IMAGES_PER_PRODUCT; j++) {
+                ImageProduct image = new ImageProduct();
+                image.setAltText(product.getName());
+                image.setImageUrl("https://example.com/" + code + "-" + j + ".jpg");
+                image.setProduct(product);
+                entityManager.persist(image);
+            }
+        }
+        return name;
+    }
+}